@@ -0,0 +1,23 @@
+package com.mahjong_java.mahjong_java;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point of benchmarks.jar: the normal JMH command line (filters, -f, -wi, -i, -rf json ...)
+// with the GC profiler always on, so every result carries gc.alloc.rate.norm (bytes per operation)
+// next to the timing.
+//
+//   java --enable-preview -jar benchmarks/target/benchmarks.jar                 every benchmark
+//   java --enable-preview -jar benchmarks/target/benchmarks.jar Board -rf json  one class, results as JSON
+public class Benchmarks {
+    private Benchmarks() {}
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
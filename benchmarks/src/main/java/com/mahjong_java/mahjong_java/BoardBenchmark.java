@@ -0,0 +1,73 @@
+package com.mahjong_java.mahjong_java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Blocked-status evaluation. blockedScan is what the old per-tile checkIfBlocked pass over the
+// whole board (updateAllTileStatuses) became; fillBoard and pairRemoveRestore measure the
+// incremental free-set and move-index upkeep that replaced it.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class BoardBenchmark {
+    @Param({"Turtle", "Overpass"})
+    public String layoutName;
+
+    private BoardState board;
+    private byte[] faces;
+    private final int[] pair = new int[2];
+
+    @Setup
+    public void setup() {
+        Layout layout = LayoutLibrary.get(layoutName);
+        Random rnd = new Random(42);
+        faces = DealGenerator.generate(layout, rnd, 10_000_000_000L);
+        if (faces == null) faces = DealGenerator.randomFaces(layout.size(), rnd);
+        board = new BoardState(layout);
+        for (int s = 0; s < faces.length; s++) board.place(s, faces[s]);
+    }
+
+    // Every slot's blocked status from scratch
+    @Benchmark
+    public void blockedScan(Blackhole bh) {
+        for (int s = 0; s < board.size(); s++) bh.consume(board.isBlocked(s));
+    }
+
+    // Dealing a whole board into an empty one
+    @Benchmark
+    public int fillBoard() {
+        board.clear();
+        for (int s = 0; s < faces.length; s++) board.place(s, faces[s]);
+        return board.getAvailablePairs();
+    }
+
+    // One move and its undo on the full deal: the work a click does to the rules model
+    @Benchmark
+    public int pairRemoveRestore() {
+        if (!board.findHint(pair)) return 0;
+        int a = pair[0], b = pair[1];
+        byte type = board.typeAt(a);
+        board.remove(a);
+        board.remove(b);
+        int free = board.getFreeCount();
+        board.place(a, type);
+        board.place(b, type);
+        return free;
+    }
+}
@@ -0,0 +1,64 @@
+package com.mahjong_java.mahjong_java;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Starting a game: compiling the layout, the plain shuffled pool and the solvable deal that
+// replaced it. Each invocation draws from the same Random, so the runs see a spread of deals
+// rather than one deal over and over.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class DealBenchmark {
+    @Param({"Turtle", "Dragon", "Fortress", "Cloud", "Overpass"})
+    public String layoutName;
+
+    private Layout layout;
+    private String layoutText;
+    private Random rnd;
+
+    @Setup
+    public void setup() throws IOException {
+        layout = LayoutLibrary.get(layoutName);
+        try (InputStream is = DealBenchmark.class.getResourceAsStream("/com/mahjong_java/mahjong_java/Layouts/" + layoutName + ".layout")) {
+            layoutText = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        rnd = new Random(42);
+    }
+
+    // Generous budget: the benchmark measures how long a solvable deal takes, not when it gives up
+    @Benchmark
+    public byte[] solvableDeal() {
+        return DealGenerator.generate(layout, rnd, 10_000_000_000L);
+    }
+
+    @Benchmark
+    public byte[] shuffledPool() {
+        return DealGenerator.randomFaces(layout.size(), rnd);
+    }
+
+    // Parsing plus precomputing the neighbour lists; LayoutLibrary does this once per layout
+    @Benchmark
+    public Layout compileLayout() throws IOException {
+        return LayoutParser.parse(layoutName, new StringReader(layoutText));
+    }
+}
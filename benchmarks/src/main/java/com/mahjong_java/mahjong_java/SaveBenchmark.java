@@ -0,0 +1,132 @@
+package com.mahjong_java.mahjong_java;
+
+import com.google.gson.GsonBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Save and load. The old Gson path only survives as the import of legacy JSON saves, so it is
+// measured on the same deal next to the binary codec it was replaced by.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class SaveBenchmark {
+    @Param({"Turtle", "Overpass"})
+    public String layoutName;
+
+    private HelloController.GameSaveData data;
+    private ByteBuffer encoded;
+    private String legacyJson;
+    private Path dir;
+    private Path file;
+    private MoveJournal journal;
+    private int seq;
+
+    // Shape of the pretty-printed Gson save the game used to write
+    private static class JsonSave { String layout; int removedPairs; int totalPairsAtStart; long gameId; int journalSeq; List<JsonTile> tiles; }
+    private static class JsonTile { int x, y, z; String symbol; }
+
+    @Setup
+    public void setup() throws IOException {
+        Layout layout = LayoutLibrary.get(layoutName);
+        byte[] faces = DealGenerator.randomFaces(layout.size(), new Random(42));
+
+        data = new HelloController.GameSaveData();
+        data.layout = layoutName;
+        data.totalPairsAtStart = faces.length / 2;
+        data.gameId = 42;
+        data.tiles = new int[faces.length];
+        for (int s = 0; s < faces.length; s++) {
+            data.tiles[s] = SaveCodec.packEntry(layout.x(s), layout.y(s), layout.z(s), faces[s]);
+        }
+        encoded = SaveCodec.encode(data);
+
+        // Legacy saves used whole-tile coordinates, so half offsets round down; the size is what matters here
+        JsonSave json = new JsonSave();
+        json.layout = data.layout;
+        json.totalPairsAtStart = data.totalPairsAtStart;
+        json.gameId = data.gameId;
+        json.tiles = new ArrayList<>();
+        for (int entry : data.tiles) {
+            JsonTile t = new JsonTile();
+            t.x = SaveCodec.entryX(entry) / Layout.TILE_SPAN;
+            t.y = SaveCodec.entryY(entry) / Layout.TILE_SPAN;
+            t.z = SaveCodec.entryZ(entry);
+            t.symbol = TileType.of(SaveCodec.entryType(entry)).getGlyph();
+            json.tiles.add(t);
+        }
+        legacyJson = new GsonBuilder().setPrettyPrinting().create().toJson(json);
+
+        dir = Files.createTempDirectory("mahjong-bench");
+        file = dir.resolve("savegame.bin");
+        journal = new MoveJournal(dir.resolve("savegame.journal"));
+    }
+
+    // Keeps the journal from growing without bound across an iteration
+    @Setup(Level.Iteration)
+    public void resetJournal() throws IOException {
+        journal.reset(data.gameId);
+        seq = 0;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(dir.resolve("savegame.journal"));
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return SaveCodec.encode(data);
+    }
+
+    @Benchmark
+    public HelloController.GameSaveData decode() throws IOException {
+        return SaveCodec.decode(encoded.duplicate());
+    }
+
+    @Benchmark
+    public HelloController.GameSaveData importLegacyJson() throws IOException {
+        return SaveCodec.importJson(new StringReader(legacyJson));
+    }
+
+    // Full snapshot through the file system; SaveCodec.write forces the file to disk, as in the game,
+    // so this mostly measures the device's flush latency
+    @Benchmark
+    public HelloController.GameSaveData writeAndReadFile() throws IOException {
+        SaveCodec.write(file, data);
+        return SaveCodec.read(file);
+    }
+
+    // What a move costs on disk between snapshots, including the fsync after every record
+    @Benchmark
+    public void journalAppend() throws IOException {
+        if (seq == (1 << 24) - 1) resetJournal();
+        journal.append(MoveJournal.PAIR, ++seq, MoveJournal.pairPayload(data.tiles[0], data.tiles[1]));
+    }
+}
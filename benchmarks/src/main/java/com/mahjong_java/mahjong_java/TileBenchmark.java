@@ -0,0 +1,78 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+// Tile construction. Nodes are built off the FX thread here, which JavaFX allows for anything
+// not yet attached to a scene; the toolkit still has to be up, so this needs a display (use
+// xvfb-run on a headless machine). newTileAndDecode is what every tile used to cost before faces
+// were shared through TileImageCache and nodes recycled through TilePool.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class TileBenchmark {
+    private byte[] png;
+    private TilePool pool;
+    private byte type;
+
+    @Setup
+    public void setup() throws IOException {
+        try {
+            Platform.startup(() -> {});
+        } catch (IllegalStateException alreadyRunning) {
+            // Another benchmark in this fork started it
+        }
+        TileImageCache.preload();
+        try (InputStream is = TileBenchmark.class.getResourceAsStream("/com/mahjong_java/mahjong_java/Images/Black_PNG/Pin5.png")) {
+            png = is.readAllBytes();
+        }
+        pool = new TilePool(null);
+    }
+
+    private byte nextType() {
+        type = (byte) ((type + 1) % BoardState.TYPE_COUNT);
+        return type;
+    }
+
+    // Node construction with the face taken from the shared cache
+    @Benchmark
+    public MahjongTile newTile() {
+        return new MahjongTile(nextType(), null);
+    }
+
+    @Benchmark
+    public Image decodeFace() {
+        return new Image(new ByteArrayInputStream(png));
+    }
+
+    @Benchmark
+    public Object[] newTileAndDecode() {
+        return new Object[] { new MahjongTile(nextType(), null), new Image(new ByteArrayInputStream(png)) };
+    }
+
+    // The steady state of a restart: a node comes back from the pool and is re-skinned
+    @Benchmark
+    public MahjongTile pooledAcquireRelease() {
+        MahjongTile tile = pool.acquire(nextType());
+        pool.release(tile);
+        return tile;
+    }
+}
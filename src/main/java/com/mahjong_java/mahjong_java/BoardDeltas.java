@@ -0,0 +1,138 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.Arrays;
+
+// The live board's change stream. BoardState reports every tile placed, removed or reskinned and
+// every free/blocked flip as it happens; they are queued here as packed longs
+//
+//   kind (8 bits) | value (24 bits) | slot (32 bits)
+//
+// and handed to the active BoardView in one batch on the next pulse, before CSS and layout run, so
+// a match, a shuffle or an undo only touches the nodes of the tiles that changed. Each event carries
+// what the view needs (the face, the free flag), so applying a batch never reads the board, which
+// may have moved on since. Progress changes are coalesced into one ProgressListener call per batch.
+//
+// A full rebuild reads the board as it is, so it makes whatever is queued obsolete: attach() and
+// resync() drop it.
+public class BoardDeltas extends AnimationTimer implements BoardState.ChangeListener {
+    public static final int TILE_PLACED = 1;      // value: the face
+    public static final int TILE_REMOVED = 2;
+    public static final int FACE_CHANGED = 3;     // value: the new face
+    public static final int BLOCKED_CHANGED = 4;  // value: 1 if the tile is now free
+
+    private static final Metrics.Timer APPLY_TIMER = Metrics.timer("view.deltas.apply");
+    private static final Metrics.Counter APPLIED = Metrics.counter("view.deltas");
+    private static final Metrics.Counter FREE_CHANGES = Metrics.counter("board.free.changes");
+
+    // Told once per batch in which the number of tiles changed
+    public interface ProgressListener {
+        void progressChanged(int tilesLeft);
+    }
+
+    private final ProgressListener progressListener;
+    private BoardState board;
+    private BoardView view;
+    private long[] events = new long[64];
+    private int count;
+    private boolean progressChanged;
+    private boolean scheduled;
+    private int freeChanges;
+
+    public BoardDeltas(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    public static int kind(long event) { return (int) (event >>> 56); }
+    public static int value(long event) { return (int) ((event >>> 32) & 0xFFFFFF); }
+    public static int slot(long event) { return (int) event; }
+
+    // Follows a new board; the view has just been rebuilt from it
+    public void attach(BoardState board) {
+        if (this.board != null && this.board != board) this.board.setChangeListener(null);
+        this.board = board;
+        board.setChangeListener(this);
+        resync();
+    }
+
+    public void setView(BoardView view) { this.view = view; }
+
+    // Drops the queued tile events because the view was rebuilt from the board; progress still goes out
+    public void resync() {
+        count = 0;
+    }
+
+    // Free/blocked flips so far, for the per-match JFR event
+    public int getFreeChanges() { return freeChanges; }
+
+    // --- RECORDING (BoardState, FX thread) ---
+
+    @Override
+    public void tilePlaced(int slot, byte type) {
+        add(TILE_PLACED, type, slot);
+        progressChanged = true;
+    }
+
+    @Override
+    public void tileRemoved(int slot) {
+        add(TILE_REMOVED, 0, slot);
+        progressChanged = true;
+    }
+
+    @Override
+    public void faceChanged(int slot, byte type) { add(FACE_CHANGED, type, slot); }
+
+    @Override
+    public void freeChanged(int slot, boolean free) {
+        freeChanges++;
+        FREE_CHANGES.increment();
+        add(BLOCKED_CHANGED, free ? 1 : 0, slot);
+    }
+
+    private void add(int kind, int value, int slot) {
+        if (count == events.length) events = Arrays.copyOf(events, count * 2);
+        events[count++] = (long) kind << 56 | (long) (value & 0xFFFFFF) << 32 | (slot & 0xFFFFFFFFL);
+        if (!scheduled) {
+            scheduled = true;
+            start();
+        }
+    }
+
+    // --- APPLYING (once per pulse) ---
+
+    @Override
+    public void handle(long now) {
+        flush();
+    }
+
+    // Applies everything queued so far right now (also used before the board is pictured for the preview)
+    public void flush() {
+        stop();
+        scheduled = false;
+        if (count == 0 && !progressChanged) return;
+
+        long start = System.nanoTime();
+        int n = count;
+        count = 0;
+        for (int i = 0; i < n; i++) {
+            long event = events[i];
+            int slot = slot(event);
+            switch (kind(event)) {
+                case TILE_PLACED -> view.tilePlaced(slot, (byte) value(event));
+                case TILE_REMOVED -> view.tileRemoved(slot);
+                case FACE_CHANGED -> view.faceChanged(slot, (byte) value(event));
+                case BLOCKED_CHANGED -> view.freeChanged(slot, value(event) != 0);
+                default -> throw new IllegalStateException("Unknown board event kind " + kind(event));
+            }
+        }
+        view.batchApplied();
+        APPLIED.add(n);
+        APPLY_TIMER.stop(start);
+
+        if (progressChanged) {
+            progressChanged = false;
+            progressListener.progressChanged(board.getTileCount());
+        }
+    }
+}
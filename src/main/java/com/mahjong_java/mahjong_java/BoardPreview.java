@@ -0,0 +1,171 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Small pre-rendered picture of the board, written next to the save when the game closes and shown
+// at the next launch while the real board is still being built (see HelloApplication). Only pixels,
+// so showing it needs neither the FXML nor the tile images. Everything is big-endian:
+//
+//   int magic | short version | short flags | int width | int height
+//   int deflatedLength | deflated ARGB pixels, one int each, row by row
+//   int crc32 of everything before it
+//
+// Any file that doesn't check out is treated as missing; the launch then just takes the normal path.
+public final class BoardPreview {
+    public static final int MAGIC = 0x4D4A5A50; // "MJZP"
+    public static final short VERSION = 1;
+
+    // Longest side of the stored picture; enough for a sharp placeholder, small enough to inflate in a few ms
+    private static final double MAX_SIDE = 960;
+
+    // Pixels captured on the FX thread, ready to be encoded anywhere
+    public static final class Pixels {
+        public final int width;
+        public final int height;
+        public final int[] argb;
+
+        Pixels(int width, int height, int[] argb) {
+            this.width = width;
+            this.height = height;
+            this.argb = argb;
+        }
+    }
+
+    private BoardPreview() {}
+
+    // FX thread: renders the node scaled down to at most MAX_SIDE; null if it has nothing to show
+    public static Pixels capture(Node node) {
+        Bounds bounds = node.getLayoutBounds();
+        if (bounds.getWidth() <= 0 || bounds.getHeight() <= 0) return null;
+        double scale = Math.min(1.0, MAX_SIDE / Math.max(bounds.getWidth(), bounds.getHeight()));
+
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        params.setTransform(new Scale(scale, scale));
+        WritableImage image = node.snapshot(params, null);
+
+        int w = (int) image.getWidth();
+        int h = (int) image.getHeight();
+        int[] argb = new int[w * h];
+        image.getPixelReader().getPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), argb, 0, w);
+        return new Pixels(w, h, argb);
+    }
+
+    // --- ENCODING (any thread) ---
+
+    public static ByteBuffer encode(Pixels pixels) {
+        ByteBuffer raw = ByteBuffer.allocate(pixels.argb.length * 4);
+        raw.asIntBuffer().put(pixels.argb);
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(raw.array());
+        deflater.finish();
+        byte[] deflated = new byte[raw.capacity() / 2 + 64];
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == deflated.length) deflated = Arrays.copyOf(deflated, deflated.length * 2);
+            length += deflater.deflate(deflated, length, deflated.length - length);
+        }
+        deflater.end();
+
+        ByteBuffer buf = ByteBuffer.allocate(4 + 2 + 2 + 4 + 4 + 4 + length + 4);
+        buf.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+        buf.putInt(pixels.width).putInt(pixels.height);
+        buf.putInt(length).put(deflated, 0, length);
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        return buf.flip();
+    }
+
+    public static void write(Path path, Pixels pixels) throws IOException {
+        ByteBuffer buf = encode(pixels);
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+    }
+
+    // --- DECODING ---
+
+    public static Pixels decode(ByteBuffer buf) throws IOException {
+        try {
+            int start = buf.position();
+            if (buf.getInt() != MAGIC) throw new IOException("Not a board preview");
+            short version = buf.getShort();
+            if (version != VERSION) throw new IOException("Unsupported preview version " + version);
+            buf.getShort(); // flags, reserved
+
+            int w = buf.getInt();
+            int h = buf.getInt();
+            if (w <= 0 || h <= 0 || w > 4 * MAX_SIDE || h > 4 * MAX_SIDE) throw new IOException("Corrupt preview size " + w + "x" + h);
+            int length = buf.getInt();
+            if (length < 0 || length > buf.remaining() - 4) throw new IOException("Corrupt preview length " + length);
+            int dataStart = buf.arrayOffset() + buf.position();
+            buf.position(buf.position() + length);
+
+            CRC32 crc = new CRC32();
+            crc.update(buf.array(), buf.arrayOffset() + start, buf.position() - start);
+            if (buf.getInt() != (int) crc.getValue()) throw new IOException("Preview checksum mismatch");
+
+            byte[] raw = new byte[w * h * 4];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(buf.array(), dataStart, length);
+                int n = 0;
+                while (n < raw.length && !inflater.finished()) {
+                    int got = inflater.inflate(raw, n, raw.length - n);
+                    if (got == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                    n += got;
+                }
+                if (n != raw.length) throw new IOException("Truncated preview pixels");
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt preview pixels", e);
+            } finally {
+                inflater.end();
+            }
+
+            int[] argb = new int[w * h];
+            ByteBuffer.wrap(raw).asIntBuffer().get(argb);
+            return new Pixels(w, h, argb);
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("Truncated preview file", e);
+        }
+    }
+
+    // The stored picture as an Image, or null if there is none (or it is unreadable)
+    public static Image readImage(Path path) {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) return null;
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && ch.read(buf) >= 0) {}
+            Pixels pixels = decode(buf.flip());
+
+            WritableImage image = new WritableImage(pixels.width, pixels.height);
+            image.getPixelWriter().setPixels(0, 0, pixels.width, pixels.height,
+                    PixelFormat.getIntArgbInstance(), pixels.argb, 0, pixels.width);
+            return image;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
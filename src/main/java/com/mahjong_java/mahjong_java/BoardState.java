@@ -0,0 +1,217 @@
+package com.mahjong_java.mahjong_java;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+// Headless board model: one byte per layout slot holds the tile type (or EMPTY).
+// Slots and their neighbours come from a compiled Layout, so rule checks never touch
+// the scene graph, allocate nothing and can run on any thread.
+public class BoardState {
+    public static final byte EMPTY = -1;
+
+    // Tile types are TileType ordinals; the per-type tables below are indexed by them directly
+    public static final int TYPE_COUNT = TileType.COUNT;
+
+    // Notified of every change, in the order it happens (see BoardDeltas). A placed tile starts out
+    // blocked; if it is free, a freeChanged follows. A removed tile gets no freeChanged of its own.
+    public interface ChangeListener {
+        void tilePlaced(int slot, byte type);
+        void tileRemoved(int slot);
+        void faceChanged(int slot, byte type);
+        void freeChanged(int slot, boolean free);
+    }
+
+    private final Layout layout;
+    private final byte[] slots;
+    private int tileCount;
+
+    // Incrementally maintained set of free (clickable) tiles
+    private final BitSet free;
+    private int freeCount;
+    private ChangeListener listener;
+
+    // Available-move index: the free tiles of each type (swap-remove lists) and how many pairs they form
+    private final int[][] freeByType = new int[TYPE_COUNT][8];
+    private final int[] freeOfType = new int[TYPE_COUNT];
+    private final int[] freeIndex;
+    private int matchableTypes;
+    private int availablePairs;
+
+    public BoardState(Layout layout) {
+        this.layout = layout;
+        this.slots = new byte[layout.size()];
+        this.free = new BitSet(layout.size());
+        this.freeIndex = new int[layout.size()];
+        Arrays.fill(slots, EMPTY);
+    }
+
+    public BoardState(BoardState other) {
+        this.layout = other.layout;
+        this.slots = other.slots.clone();
+        this.tileCount = other.tileCount;
+        this.free = (BitSet) other.free.clone();
+        this.freeCount = other.freeCount;
+        for (int t = 0; t < TYPE_COUNT; t++) this.freeByType[t] = other.freeByType[t].clone();
+        System.arraycopy(other.freeOfType, 0, this.freeOfType, 0, TYPE_COUNT);
+        this.freeIndex = other.freeIndex.clone();
+        this.matchableTypes = other.matchableTypes;
+        this.availablePairs = other.availablePairs;
+    }
+
+    public void setChangeListener(ChangeListener listener) { this.listener = listener; }
+    public Layout getLayout() { return layout; }
+
+    // --- MUTATION ---
+
+    // Not reported to the listener: a cleared board is followed by a full view rebuild anyway
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        tileCount = 0;
+        free.clear();
+        freeCount = 0;
+        Arrays.fill(freeOfType, 0);
+        matchableTypes = 0;
+        availablePairs = 0;
+    }
+
+    public void place(int slot, byte type) {
+        byte old = slots[slot];
+        if (old == type) return;
+
+        if (old != EMPTY) {
+            // Same spot, new face: only the move index cares
+            if (free.get(slot)) unindexFree(slot, old);
+            slots[slot] = type;
+            if (free.get(slot)) indexFree(slot, type);
+            if (listener != null) listener.faceChanged(slot, type);
+            return;
+        }
+        slots[slot] = type;
+        tileCount++;
+        if (listener != null) listener.tilePlaced(slot, type);
+        refreshAround(slot);
+    }
+
+    public void remove(int slot) {
+        byte type = slots[slot];
+        if (type == EMPTY) return;
+
+        if (free.get(slot)) {
+            free.clear(slot);
+            freeCount--;
+            unindexFree(slot, type);
+        }
+        slots[slot] = EMPTY;
+        tileCount--;
+        if (listener != null) listener.tileRemoved(slot);
+        refreshAround(slot);
+    }
+
+    // Filling or emptying a slot can only change the state of the slot itself,
+    // its side neighbours and the tiles underneath it
+    private void refreshAround(int slot) {
+        refresh(slot);
+        for (int i = layout.leftStart[slot]; i < layout.leftStart[slot + 1]; i++) refresh(layout.left[i]);
+        for (int i = layout.rightStart[slot]; i < layout.rightStart[slot + 1]; i++) refresh(layout.right[i]);
+        for (int i = layout.belowStart[slot]; i < layout.belowStart[slot + 1]; i++) refresh(layout.below[i]);
+    }
+
+    private void refresh(int slot) {
+        boolean nowFree = slots[slot] != EMPTY && !isBlocked(slot);
+        if (nowFree == free.get(slot)) return;
+
+        free.set(slot, nowFree);
+        if (nowFree) {
+            freeCount++;
+            indexFree(slot, slots[slot]);
+        } else {
+            freeCount--;
+            unindexFree(slot, slots[slot]);
+        }
+        if (listener != null) listener.freeChanged(slot, nowFree);
+    }
+
+    private void indexFree(int slot, byte type) {
+        int n = freeOfType[type];
+        if (n == freeByType[type].length) freeByType[type] = Arrays.copyOf(freeByType[type], n * 2);
+        freeByType[type][n] = slot;
+        freeIndex[slot] = n;
+        freeOfType[type] = n + 1;
+
+        availablePairs += n;
+        if (n == 1) matchableTypes++;
+    }
+
+    private void unindexFree(int slot, byte type) {
+        int n = freeOfType[type] - 1;
+        int index = freeIndex[slot];
+        int last = freeByType[type][n];
+        freeByType[type][index] = last;
+        freeIndex[last] = index;
+        freeOfType[type] = n;
+
+        availablePairs -= n;
+        if (n == 1) matchableTypes--;
+    }
+
+    // --- RULES ---
+
+    public int size() { return slots.length; }
+    public byte typeAt(int slot) { return slots[slot]; }
+    public boolean isOccupied(int slot) { return slots[slot] != EMPTY; }
+    public int getTileCount() { return tileCount; }
+    public int getFreeCount() { return freeCount; }
+
+    // A tile is blocked if anything sits on top of it, or if it has neighbours on both its left and right
+    public boolean isBlocked(int slot) {
+        for (int i = layout.aboveStart[slot]; i < layout.aboveStart[slot + 1]; i++) {
+            if (slots[layout.above[i]] != EMPTY) return true;
+        }
+        return anyOccupied(layout.left, layout.leftStart[slot], layout.leftStart[slot + 1])
+                && anyOccupied(layout.right, layout.rightStart[slot], layout.rightStart[slot + 1]);
+    }
+
+    private boolean anyOccupied(int[] list, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (slots[list[i]] != EMPTY) return true;
+        }
+        return false;
+    }
+
+    public boolean isFree(int slot) { return free.get(slot); }
+
+    public boolean canMatch(int a, int b) {
+        return a != b && slots[a] != EMPTY && slots[a] == slots[b] && isFree(a) && isFree(b);
+    }
+
+    // Cursor-style iteration so callers can walk the tiles without allocating: returns -1 when done
+    public int nextTile(int fromSlot) {
+        for (int s = fromSlot; s < slots.length; s++) {
+            if (slots[s] != EMPTY) return s;
+        }
+        return -1;
+    }
+
+    public int nextFree(int fromSlot) { return free.nextSetBit(fromSlot); }
+
+    // --- AVAILABLE MOVES (all constant time) ---
+
+    public int freeCountOf(int type) { return freeOfType[type]; }
+    public int freeSlotOf(int type, int index) { return freeByType[type][index]; }
+    public int getAvailablePairs() { return availablePairs; }
+    public boolean hasMoves() { return matchableTypes > 0; }
+    public boolean isDeadlocked() { return tileCount > 0 && matchableTypes == 0; }
+
+    // Writes a matching free pair into out[0..1]; false if there is none
+    public boolean findHint(int[] out) {
+        if (matchableTypes == 0) return false;
+        for (int t = 0; t < TYPE_COUNT; t++) {
+            if (freeOfType[t] >= 2) {
+                out[0] = freeByType[t][0];
+                out[1] = freeByType[t][1];
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.scene.Node;
+
+// What the controller needs from whatever draws the board. Everything is addressed by layout slot,
+// so the game logic doesn't care whether a tile is a scene-graph node or pixels on a canvas.
+public interface BoardView {
+    // --- GLOBAL SPACING CONSTANTS (shared by every renderer so nothing misaligns) ---
+    double TILE_W = 60.0;
+    double TILE_H = 84.0;
+    double GAP = 15.0;
+    double Z_OFFSET = 5.0;
+    double PADDING = 50.0;
+    double THICKNESS = 5.0;
+
+    int HIGHLIGHT_NONE = 0;
+    int HIGHLIGHT_SELECTED = 1;
+    int HIGHLIGHT_HINT = 2;
+
+    // Screen distance covered by one half-unit step of layout coordinates
+    double HALF_STEP_X = (TILE_W + GAP) / Layout.TILE_SPAN;
+    double HALF_STEP_Y = (TILE_H + GAP) / Layout.TILE_SPAN;
+
+    // Grid projection of a slot's top-left corner, before the board is shifted to its origin
+    static double projectX(Layout layout, int slot) { return layout.x(slot) * HALF_STEP_X - layout.z(slot) * Z_OFFSET; }
+    static double projectY(Layout layout, int slot) { return layout.y(slot) * HALF_STEP_Y - layout.z(slot) * Z_OFFSET; }
+
+    Node getNode();
+
+    // Rebuilds every tile from the model (new deal, load, renderer switch)
+    void rebuild(BoardState board, boolean animate);
+
+    // Deltas since the last rebuild, applied in order by BoardDeltas. They carry everything needed,
+    // so none of them may read the board: it can be ahead of the batch being applied.
+    void tilePlaced(int slot, byte type); // starts out blocked; a freeChanged follows if it is free
+    void tileRemoved(int slot);
+    void faceChanged(int slot, byte type);
+    void freeChanged(int slot, boolean free);
+
+    // End of one batch of deltas
+    void batchApplied();
+
+    void setHighlight(int slot, int highlight);
+    void clear();
+}
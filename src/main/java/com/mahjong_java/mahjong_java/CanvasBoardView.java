@@ -0,0 +1,253 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.animation.FadeTransition;
+import javafx.application.Platform;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+import javafx.util.Duration;
+
+import java.util.Arrays;
+
+// Low-performance renderer: the whole board is painted onto a single Canvas in z-order, so the
+// scene graph holds one node instead of several hundred. Clicks are mapped back to a slot by
+// inverting the grid projection, top layer first.
+public class CanvasBoardView implements BoardView {
+    private static final Color BODY = Color.web("#2a2a2a");
+    private static final Color FACE = Color.web("#121212");
+    private static final Color BORDER = Color.web("#B0B0B0");
+    private static final Color SELECT_TINT = Color.rgb(255, 226, 125, 0.6); // Mild Gold
+    private static final Color HINT_TINT = Color.rgb(137, 180, 250, 0.7);   // Soft Blue
+
+    private static final Metrics.Timer REBUILD_TIMER = Metrics.timer("view.rebuild.canvas");
+
+    private final Canvas canvas = new Canvas();
+    private final HelloController controller;
+    private byte[] highlights = new byte[0];
+
+    // What is painted: the faces as of the last rebuild plus the deltas applied since, which may be
+    // behind the live board. The board itself is only asked whether a clicked tile is free.
+    private byte[] faces = new byte[0];
+    private BoardState board;
+    private Layout layout;
+    private double originX;
+    private double originY;
+    private boolean redrawPending;
+
+    public CanvasBoardView(HelloController controller) {
+        this.controller = controller;
+        canvas.setOnMousePressed(e -> {
+            int slot = pick(e.getX(), e.getY());
+            if (slot >= 0 && board.isFree(slot)) controller.handleSlotClick(slot);
+        });
+    }
+
+    @Override
+    public Node getNode() { return canvas; }
+
+    @Override
+    public void rebuild(BoardState board, boolean animate) {
+        long start = System.nanoTime();
+        this.board = board;
+        this.layout = board.getLayout();
+        if (highlights.length != layout.size()) {
+            highlights = new byte[layout.size()];
+            faces = new byte[layout.size()];
+        }
+        Arrays.fill(highlights, (byte) HIGHLIGHT_NONE);
+        for (int c = 0; c < faces.length; c++) faces[c] = board.typeAt(c);
+
+        // 1. The canvas covers exactly the tiles on the board (plus their side walls)
+        fitCanvas();
+        redraw();
+
+        if (animate) {
+            FadeTransition ft = new FadeTransition(Duration.millis(300), canvas);
+            ft.setFromValue(0);
+            ft.setToValue(1.0);
+            ft.play();
+        }
+
+        GameEvents.ViewRebuild event = new GameEvents.ViewRebuild();
+        if (event.isEnabled()) {
+            event.renderer = "canvas";
+            event.tiles = board.getTileCount();
+            event.commit();
+        }
+        REBUILD_TIMER.stop(start);
+    }
+
+    // Sizes the canvas to the painted tiles and moves the origin to their top-left corner
+    private void fitCanvas() {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (int c = 0; c < faces.length; c++) {
+            if (faces[c] == BoardState.EMPTY) continue;
+            minX = Math.min(minX, BoardView.projectX(layout, c));
+            minY = Math.min(minY, BoardView.projectY(layout, c));
+            maxX = Math.max(maxX, BoardView.projectX(layout, c));
+            maxY = Math.max(maxY, BoardView.projectY(layout, c));
+        }
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (minX == Double.MAX_VALUE) {
+            // Nothing to paint; tiles put back later grow the canvas again
+            canvas.setWidth(0);
+            canvas.setHeight(0);
+            return;
+        }
+        originX = minX;
+        originY = minY;
+        canvas.setWidth(maxX - minX + TILE_W + THICKNESS);
+        canvas.setHeight(maxY - minY + TILE_H + THICKNESS);
+    }
+
+    @Override
+    public void faceChanged(int slot, byte type) {
+        if (layout == null) return;
+        faces[slot] = type;
+        requestRedraw();
+    }
+
+    @Override
+    public void tileRemoved(int slot) {
+        if (layout == null) return;
+        faces[slot] = BoardState.EMPTY;
+        highlights[slot] = HIGHLIGHT_NONE;
+        requestRedraw();
+    }
+
+    // The canvas only covers the tiles painted at the last fit; a tile put back outside that area
+    // needs a bigger one
+    @Override
+    public void tilePlaced(int slot, byte type) {
+        if (layout == null) return;
+        boolean wasEmpty = canvas.getWidth() == 0;
+        faces[slot] = type;
+        double x = BoardView.projectX(layout, slot) - originX;
+        double y = BoardView.projectY(layout, slot) - originY;
+        if (wasEmpty || x < 0 || y < 0 || x + TILE_W + THICKNESS > canvas.getWidth() || y + TILE_H + THICKNESS > canvas.getHeight()) {
+            fitCanvas();
+        }
+        requestRedraw();
+    }
+
+    // Blocked tiles look the same as free ones, so there is nothing to repaint
+    @Override
+    public void freeChanged(int slot, boolean free) {}
+
+    // The batch is applied ahead of this pulse's layout, so painting now shows it in the same frame
+    @Override
+    public void batchApplied() {
+        if (redrawPending) redraw();
+    }
+
+    @Override
+    public void setHighlight(int slot, int highlight) {
+        if (highlights[slot] == highlight) return;
+        highlights[slot] = (byte) highlight;
+        requestRedraw();
+    }
+
+    @Override
+    public void clear() {
+        board = null;
+        layout = null;
+        Arrays.fill(highlights, (byte) HIGHLIGHT_NONE);
+        Arrays.fill(faces, BoardState.EMPTY);
+        canvas.getGraphicsContext2D().clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        canvas.setWidth(0);
+        canvas.setHeight(0);
+    }
+
+    // Several changes usually arrive together (a pair, its neighbours, the highlight); paint once for all of them
+    private void requestRedraw() {
+        if (redrawPending) return;
+        redrawPending = true;
+        Platform.runLater(() -> {
+            if (redrawPending) redraw();
+        });
+    }
+
+    private void redraw() {
+        redrawPending = false;
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (layout == null) return;
+
+        // Ascending slot order is bottom layer first, which is exactly the painter's order we need
+        for (int c = 0; c < faces.length; c++) {
+            if (faces[c] != BoardState.EMPTY) drawTile(gc, c);
+        }
+    }
+
+    private void drawTile(GraphicsContext gc, int slot) {
+        double x = BoardView.projectX(layout, slot) - originX;
+        double y = BoardView.projectY(layout, slot) - originY;
+
+        // 1. THE TILE BODY (3D Side Wall)
+        gc.setFill(BODY);
+        gc.fillRoundRect(x + THICKNESS, y + THICKNESS, TILE_W, TILE_H, 12, 12);
+
+        // 2. THE TILE FACE (stroke kept inside the face, like StrokeType.INSIDE)
+        gc.setFill(FACE);
+        gc.fillRoundRect(x, y, TILE_W, TILE_H, 10, 10);
+        gc.setStroke(BORDER);
+        gc.setLineWidth(1.2);
+        gc.strokeRoundRect(x + 0.6, y + 0.6, TILE_W - 1.2, TILE_H - 1.2, 10, 10);
+
+        // 3. SELECTION / HINT (a tinted rim stands in for the node view's InnerShadow)
+        int highlight = highlights[slot];
+        if (highlight != HIGHLIGHT_NONE) {
+            gc.setStroke(highlight == HIGHLIGHT_SELECTED ? SELECT_TINT : HINT_TINT);
+            gc.setLineWidth(6);
+            gc.strokeRoundRect(x + 3, y + 3, TILE_W - 6, TILE_H - 6, 8, 8);
+        }
+
+        // 4. FACE IMAGE, fitted into 60% of the tile and centred the same way as in MahjongTile
+        byte type = faces[slot];
+        Image img = TileImageCache.get(type);
+        double cx = x + TILE_W / 2 - THICKNESS / 2;
+        double cy = y + TILE_H / 2 - THICKNESS / 2;
+        if (img != null && img.getWidth() > 0 && img.getHeight() > 0) {
+            double scale = Math.min(TILE_W * 0.60 / img.getWidth(), TILE_H * 0.60 / img.getHeight());
+            double w = img.getWidth() * scale;
+            double h = img.getHeight() * scale;
+            gc.drawImage(img, cx - w / 2, cy - h / 2, w, h);
+        } else {
+            gc.setFill(Color.WHITE);
+            gc.setFont(TileImageCache.fallbackFont());
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+            gc.fillText(TileType.of(type).getGlyph(), cx, cy);
+        }
+    }
+
+    // Topmost occupied slot whose face contains the point, or -1
+    private int pick(double px, double py) {
+        if (board == null) return -1;
+        for (int z = layout.maxZ(); z >= 0; z--) {
+            // Invert projectX/projectY for this layer
+            double gx = px + originX + z * Z_OFFSET;
+            double gy = py + originY + z * Z_OFFSET;
+            if (gx < 0 || gy < 0) continue;
+
+            // A tile may start on this half step or the one before it; tiles on one layer never overlap,
+            // so at most one candidate contains the point. Points in the gap between tiles belong to none.
+            int hx = (int) (gx / HALF_STEP_X);
+            int hy = (int) (gy / HALF_STEP_Y);
+            for (int y = hy; y >= hy - 1 && y >= 0; y--) {
+                if (gy - y * HALF_STEP_Y >= TILE_H) continue;
+                for (int x = hx; x >= hx - 1 && x >= 0; x--) {
+                    if (gx - x * HALF_STEP_X >= TILE_W) continue;
+                    int slot = layout.slotAt(x, y, z);
+                    if (slot >= 0 && faces[slot] != BoardState.EMPTY) return slot;
+                }
+            }
+        }
+        return -1;
+    }
+}
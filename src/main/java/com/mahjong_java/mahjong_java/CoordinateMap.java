@@ -0,0 +1,46 @@
+package com.mahjong_java.mahjong_java;
+
+import java.util.Arrays;
+
+// Open-addressing map from packed coordinates (see Layout.coordKey) to slot numbers. Sized to the
+// layout rather than to a bounding box, so memory grows with the tile count however far apart the
+// tiles are. Built once per layout and read-only afterwards, so lookups need no synchronisation.
+final class CoordinateMap {
+    private static final long FREE = -1L; // packed keys are never negative
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+
+    CoordinateMap(int expected) {
+        // Keep the load factor at or below 1/2 so probe runs stay short
+        int capacity = Integer.highestOneBit(Math.max(expected, 2) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, FREE);
+    }
+
+    // Returns false (and changes nothing) if the key is already present
+    boolean put(long key, int value) {
+        int i = (int) Layout.mix(key) & mask;
+        while (keys[i] != FREE) {
+            if (keys[i] == key) return false;
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        return true;
+    }
+
+    // Value for the key, or -1
+    int get(long key) {
+        int i = (int) Layout.mix(key) & mask;
+        long k;
+        while ((k = keys[i]) != FREE) {
+            if (k == key) return values[i];
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+}
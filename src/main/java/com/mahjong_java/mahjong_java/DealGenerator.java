@@ -0,0 +1,222 @@
+package com.mahjong_java.mahjong_java;
+
+import java.util.Random;
+
+// Builds deals that are solvable by construction. Starting from the full layout we repeatedly
+// pick two tiles that are free at that point, give them the same face and lift them off the board.
+// Each pair was free on the board as it stood when it was lifted, so playing the removals in the
+// order they were made is a winning line, and the deal is never dead on arrival.
+public class DealGenerator {
+
+    private DealGenerator() {}
+
+    // Faces for a layout of the given size: one entry per pair, cycling through every type, shuffled
+    public static byte[] pairTypes(int pairs, Random rnd) {
+        byte[] types = new byte[pairs];
+        for (int i = 0; i < pairs; i++) types[i] = (byte) (i % BoardState.TYPE_COUNT);
+        for (int i = pairs - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            byte tmp = types[i]; types[i] = types[j]; types[j] = tmp;
+        }
+        return types;
+    }
+
+    // Plain shuffled pool for a layout of the given size, with no solvability guarantee (the fallback
+    // when generate() runs out of budget, and the baseline the simulator compares against)
+    public static byte[] randomFaces(int size, Random rnd) {
+        byte[] pool = new byte[size];
+        for (int i = 0; i < size / 2; i++) {
+            byte type = (byte) (i % BoardState.TYPE_COUNT);
+            pool[2 * i] = type; pool[2 * i + 1] = type;
+        }
+        // Fisher-Yates over the primitive pool (same distribution as Collections.shuffle)
+        for (int i = pool.length - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            byte tmp = pool[i]; pool[i] = pool[j]; pool[j] = tmp;
+        }
+        return pool;
+    }
+
+    // Convenience overload that fills every slot of the layout (compiled layouts always have an even count)
+    public static byte[] generate(Layout layout, Random rnd, long budgetNanos) {
+        int[] slots = new int[layout.size()];
+        for (int i = 0; i < slots.length; i++) slots[i] = i;
+        return generate(layout, slots, pairTypes(slots.length / 2, rnd), rnd, budgetNanos);
+    }
+
+    // Bounded by a number of tries instead of the clock, so the deal depends on rnd alone however
+    // busy the machine is; null if none of the tries worked out
+    public static byte[] generateWithinTries(Layout layout, Random rnd, int maxAttempts) {
+        int[] slots = new int[layout.size()];
+        for (int i = 0; i < slots.length; i++) slots[i] = i;
+        return search(layout, slots, pairTypes(slots.length / 2, rnd), rnd, Long.MAX_VALUE, maxAttempts, null);
+    }
+
+    // Returns the face for each entry of slots, or null if no solvable deal was found within the budget
+    public static byte[] generate(Layout layout, int[] slots, byte[] pairTypes, Random rnd, long budgetNanos) {
+        return search(layout, slots, pairTypes, rnd, System.nanoTime() + budgetNanos, Integer.MAX_VALUE, null);
+    }
+
+    // generate() that also stops after maxAttempts tries and reports in attempts[0] how many it made.
+    // Each try consumes rnd the same way whatever the clock says, so the same Random and the same
+    // number of tries always end in the same deal.
+    private static byte[] search(Layout layout, int[] slots, byte[] pairTypes, Random rnd, long deadline, int maxAttempts, int[] attempts) {
+        if (slots.length % 2 != 0 || pairTypes.length * 2 != slots.length) {
+            throw new IllegalArgumentException("Need exactly one face per pair of slots");
+        }
+
+        BoardState scratch = new BoardState(layout);
+        byte[] assigned = new byte[layout.size()];
+        int[] freeSlots = new int[slots.length];
+        int[] weights = new int[slots.length];
+
+        // An interrupt means the deal was superseded (see GameTaskScheduler), so give up like on a timeout
+        int tries = 0;
+        while (tries < maxAttempts && System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+            tries++;
+            if (attempts != null) attempts[0] = tries;
+            // 1. Fill every slot; the faces don't matter while we only track which tiles are free
+            scratch.clear();
+            for (int slot : slots) scratch.place(slot, (byte) 0);
+
+            // 2. Lift pairs off until the board is empty or we paint ourselves into a corner
+            int pair = 0;
+            while (scratch.getTileCount() > 0) {
+                int n = 0;
+                int totalWeight = 0;
+                for (int s = scratch.nextFree(0); s >= 0; s = scratch.nextFree(s + 1)) {
+                    freeSlots[n] = s;
+                    // Prefer high tiles: leaving a lone tall stack for last is the usual dead end
+                    weights[n] = layout.z(s) + 1;
+                    totalWeight += weights[n];
+                    n++;
+                }
+                if (n < 2) break;
+
+                int first = pickWeighted(weights, n, totalWeight, rnd);
+                int firstSlot = freeSlots[first];
+                totalWeight -= weights[first];
+                weights[first] = 0;
+                int secondSlot = freeSlots[pickWeighted(weights, n, totalWeight, rnd)];
+
+                assigned[firstSlot] = pairTypes[pair];
+                assigned[secondSlot] = pairTypes[pair];
+                pair++;
+                scratch.remove(firstSlot);
+                scratch.remove(secondSlot);
+            }
+
+            if (scratch.getTileCount() == 0) {
+                byte[] deal = new byte[slots.length];
+                for (int i = 0; i < slots.length; i++) deal[i] = assigned[slots[i]];
+                return deal;
+            }
+        }
+        return null;
+    }
+
+    // Deals the faces still on the board out again at random (Fisher-Yates in slot order). Given
+    // the same seeded Random and the same board it always produces the same result, which is what
+    // lets the move journal store a shuffle as just its seed.
+    public static void shuffleFaces(BoardState board, Random rnd) {
+        int[] occupied = new int[board.getTileCount()];
+        byte[] faces = new byte[occupied.length];
+        int n = 0;
+        for (int c = board.nextTile(0); c >= 0; c = board.nextTile(c + 1)) {
+            occupied[n] = c;
+            faces[n] = board.typeAt(c);
+            n++;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            byte tmp = faces[i]; faces[i] = faces[j]; faces[j] = tmp;
+        }
+        for (int i = 0; i < n; i++) board.place(occupied[i], faces[i]);
+    }
+
+    // --- RESHUFFLE ---
+
+    // Tries at most this many deals; the count has to fit the low 16 bits of the journal payload
+    private static final int MAX_RESHUFFLE_ATTEMPTS = 0xFFFF;
+    private static final long SEED_MASK = (1L << 48) - 1;
+
+    // Deals the faces still on the board out again so that the position can be cleared: the same
+    // construction as generate(), run over the occupied slots with the faces already there. If no such
+    // deal turns up within the budget (some shapes can't be cleared whatever the faces, e.g. a lone
+    // stack), it falls back to a random deal that has at least one move.
+    //
+    // Returns the journal payload: the 48 seed bits Random actually uses, then the try that succeeded
+    // (0 for the fallback). replayReshuffle() reproduces the result from it without any clock.
+    public static long reshuffle(BoardState board, long seed, long budgetNanos) {
+        long seed48 = seed & SEED_MASK;
+        int attempts = reshuffle(board, seed48, System.nanoTime() + budgetNanos, MAX_RESHUFFLE_ATTEMPTS);
+        return seed48 << 16 | attempts;
+    }
+
+    public static void replayReshuffle(BoardState board, long payload) {
+        reshuffle(board, payload >>> 16, Long.MAX_VALUE, reshuffleAttempts(payload));
+    }
+
+    public static int reshuffleAttempts(long payload) { return (int) (payload & 0xFFFF); }
+    public static boolean isSolvableReshuffle(long payload) { return reshuffleAttempts(payload) != 0; }
+
+    // Returns the number of tries that found a clearable deal, or 0 if the fallback was used
+    private static int reshuffle(BoardState board, long seed48, long deadline, int maxAttempts) {
+        int[] slots = new int[board.getTileCount()];
+        int[] typeCounts = new int[BoardState.TYPE_COUNT];
+        int n = 0;
+        for (int c = board.nextTile(0); c >= 0; c = board.nextTile(c + 1)) {
+            slots[n++] = c;
+            typeCounts[board.typeAt(c)]++;
+        }
+
+        // Matches only ever remove faces in twos, so every type is still on the board an even number of times
+        boolean paired = n % 2 == 0;
+        for (int count : typeCounts) paired &= count % 2 == 0;
+
+        if (paired && maxAttempts > 0) {
+            byte[] pairTypes = new byte[n / 2];
+            int p = 0;
+            for (int t = 0; t < typeCounts.length; t++) {
+                for (int i = 0; i < typeCounts[t] / 2; i++) pairTypes[p++] = (byte) t;
+            }
+            Random rnd = new Random(seed48);
+            for (int i = pairTypes.length - 1; i > 0; i--) {
+                int j = rnd.nextInt(i + 1);
+                byte tmp = pairTypes[i]; pairTypes[i] = pairTypes[j]; pairTypes[j] = tmp;
+            }
+
+            int[] attempts = {0};
+            byte[] faces = search(board.getLayout(), slots, pairTypes, rnd, deadline, maxAttempts, attempts);
+            if (faces != null) {
+                for (int i = 0; i < n; i++) board.place(slots[i], faces[i]);
+                return attempts[0];
+            }
+        }
+
+        // Fallback: a plain shuffle (its own Random, so it doesn't depend on how many tries came before),
+        // then if nothing matches, give the first free tile a partner by swapping faces with the second one
+        shuffleFaces(board, new Random(~seed48));
+        if (board.hasMoves() || board.getFreeCount() < 2) return 0;
+        int a = board.nextFree(0);
+        int b = board.nextFree(a + 1);
+        byte type = board.typeAt(a);
+        for (int c = board.nextTile(0); c >= 0; c = board.nextTile(c + 1)) {
+            if (c != a && board.typeAt(c) == type) {
+                board.place(c, board.typeAt(b));
+                board.place(b, type);
+                break;
+            }
+        }
+        return 0;
+    }
+
+    private static int pickWeighted(int[] weights, int n, int totalWeight, Random rnd) {
+        int r = rnd.nextInt(totalWeight);
+        for (int i = 0; i < n; i++) {
+            r -= weights[i];
+            if (r < 0) return i;
+        }
+        return n - 1;
+    }
+}
@@ -0,0 +1,99 @@
+package com.mahjong_java.mahjong_java;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JDK Flight Recorder events for the gameplay hot paths. They cost next to nothing unless a
+// recording is running, e.g.
+//
+//   java -XX:StartFlightRecording=filename=mahjong.jfr,settings=profile ...
+//
+// and show up in JDK Mission Control under "Mahjong Zen". Durational events are begun and
+// committed around the work; the static helpers are for the one-shot ones.
+public final class GameEvents {
+    private GameEvents() {}
+
+    @Name("mahjong.Deal")
+    @Label("Deal")
+    @Category("Mahjong Zen")
+    public static final class Deal extends Event {
+        @Label("Layout") public String layout;
+        @Label("Tiles") public int tiles;
+        @Label("Solvable by construction") public boolean solvable;
+    }
+
+    @Name("mahjong.Shuffle")
+    @Label("Shuffle")
+    @Category("Mahjong Zen")
+    public static final class Shuffle extends Event {
+        @Label("Tiles") public int tiles;
+        @Label("Clearable") public boolean solvable;
+        @Label("Deals Tried") public int attempts;
+    }
+
+    // One matched pair, from the click to the board, view and journal being up to date
+    @Name("mahjong.Match")
+    @Label("Match")
+    @Category("Mahjong Zen")
+    public static final class Match extends Event {
+        @Label("Tiles Left") public int tilesLeft;
+        @Label("Free-State Changes") public int freeChanges;
+    }
+
+    @Name("mahjong.ViewRebuild")
+    @Label("View Rebuild")
+    @Category("Mahjong Zen")
+    public static final class ViewRebuild extends Event {
+        @Label("Renderer") public String renderer;
+        @Label("Tiles") public int tiles;
+        @Label("New Tile Nodes") public int created;
+    }
+
+    // Snapshot built on the FX thread, or written to disk by the save writer
+    @Name("mahjong.Save")
+    @Label("Save")
+    @Category("Mahjong Zen")
+    public static final class Save extends Event {
+        @Label("Stage") public String stage;
+        @Label("Tiles") public int tiles;
+        @Label("Bytes") @DataAmount public long bytes;
+    }
+
+    @Name("mahjong.Load")
+    @Label("Load")
+    @Category("Mahjong Zen")
+    public static final class Load extends Event {
+        @Label("Layout") public String layout;
+        @Label("Tiles") public int tiles;
+        @Label("Replayed Moves") public int replayed;
+        @Label("Bytes") @DataAmount public long bytes;
+    }
+
+    @Name("mahjong.PulseOverrun")
+    @Label("FX Pulse Overrun")
+    @Category("Mahjong Zen")
+    public static final class PulseOverrun extends Event {
+        @Label("CSS and Layout") @Timespan public long layoutTime;
+    }
+
+    // Launch timings, both measured from JVM start (see Startup)
+    @Name("mahjong.Startup")
+    @Label("Startup")
+    @Category("Mahjong Zen")
+    public static final class Startup extends Event {
+        @Label("First Frame") @Timespan public long firstFrame;
+        @Label("Interactive") @Timespan public long interactive;
+        @Label("From Preview") public boolean preview;
+    }
+
+    static void pulseOverrun(long nanos) {
+        PulseOverrun event = new PulseOverrun();
+        if (!event.isEnabled()) return;
+        event.layoutTime = nanos;
+        event.commit();
+    }
+}
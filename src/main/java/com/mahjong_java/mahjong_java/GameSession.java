@@ -0,0 +1,117 @@
+package com.mahjong_java.mahjong_java;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Everything that belongs to one player: where their save, journal and legacy JSON live, and how
+// much memory their game may use. The desktop app has exactly one session, saving to user.home as
+// it always has. Under JPro every browser tab gets its own HelloController and its own session,
+// with files in a directory per session id; what all sessions share is read-only and lives in
+// static caches instead (TileImageCache, LayoutLibrary, the fallback font).
+//
+//   -Dmahjong.sessions.dir=/srv/mahjong      where browser sessions keep their saves
+//   -Dmahjong.session.budget.mb=8            memory each session may use (mostly the solver's table)
+//   -Dmahjong.sessions.max=500               sessions admitted at once (default: as many as the heap fits)
+public final class GameSession {
+    private static final String SAVE_NAME = "mahjong_zen_save.dat";
+    private static final String LEGACY_SAVE_NAME = "mahjong_zen_save.json";
+    private static final String JOURNAL_NAME = "mahjong_zen_save.journal";
+    private static final String PREVIEW_NAME = "mahjong_zen_preview.dat";
+
+    public static final String COOKIE = "mahjong_session";
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9-]{8,64}");
+
+    // What the solver's dead-position table may take of the budget; the scene graph, board and
+    // journal buffers of one game fit comfortably in the rest
+    private static final int MIN_TABLE_BITS = 14;
+    private static final int MAX_TABLE_BITS = 20;
+    private static final long VIEW_RESERVE_BYTES = 2L << 20;
+
+    // Heap kept free for the toolkit, the shared caches and garbage between collections
+    private static final double HEAP_SHARE_FOR_SESSIONS = 0.75;
+
+    private static final Map<String, GameSession> ACTIVE = new ConcurrentHashMap<>();
+
+    private final String id;
+    private final Path saveDir;
+    private final long memoryBudgetBytes;
+    private final int solverTableBits;
+    private final boolean desktop;
+    private volatile boolean closed;
+
+    private GameSession(String id, Path saveDir, long memoryBudgetBytes, boolean desktop) {
+        this.id = id;
+        this.desktop = desktop;
+        this.saveDir = saveDir;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.solverTableBits = tableBitsFor(memoryBudgetBytes);
+    }
+
+    // The single local player; keeps the save files where earlier versions put them
+    public static GameSession desktop() {
+        return new GameSession("desktop", Path.of(System.getProperty("user.home")), 64L << 20, true);
+    }
+
+    // A browser session for the id stored in the player's cookie (null or malformed ids get a fresh
+    // one). Throws IllegalStateException when the server has no room for another session. The id
+    // actually used can differ from the requested one, so callers write getId() back to the cookie.
+    public static GameSession open(String requestedId) throws IOException {
+        long budget = Long.getLong("mahjong.session.budget.mb", 8) << 20;
+        long maxByHeap = (long) (Runtime.getRuntime().maxMemory() * HEAP_SHARE_FOR_SESSIONS) / budget;
+        long max = Long.getLong("mahjong.sessions.max", maxByHeap);
+        if (ACTIVE.size() >= max) throw new IllegalStateException("Session limit reached (" + max + ")");
+
+        // A second tab with the same cookie must not write over the first tab's save
+        String id = requestedId != null && VALID_ID.matcher(requestedId).matches() ? requestedId : newId();
+        Path root = Path.of(System.getProperty("mahjong.sessions.dir",
+                Path.of(System.getProperty("user.home"), ".mahjong_zen", "sessions").toString()));
+        GameSession session = new GameSession(id, root.resolve(id), budget, false);
+        while (ACTIVE.putIfAbsent(session.id, session) != null) {
+            String fresh = newId();
+            session = new GameSession(fresh, root.resolve(fresh), budget, false);
+        }
+        try {
+            Files.createDirectories(session.saveDir);
+        } catch (IOException e) {
+            session.close();
+            throw e;
+        }
+        return session;
+    }
+
+    private static String newId() {
+        return UUID.randomUUID().toString();
+    }
+
+    // Largest table that fits in the budget once the view's share is set aside
+    static int tableBitsFor(long budgetBytes) {
+        long tableBytes = Math.max(budgetBytes - VIEW_RESERVE_BYTES, 0);
+        int bits = 63 - Long.numberOfLeadingZeros(Math.max(tableBytes / Long.BYTES, 1));
+        return Math.max(MIN_TABLE_BITS, Math.min(MAX_TABLE_BITS, bits));
+    }
+
+    // Frees the session's place; its files stay so the player can come back to the same game
+    public void close() {
+        if (closed) return;
+        closed = true;
+        ACTIVE.remove(id, this);
+    }
+
+    public static int activeCount() { return ACTIVE.size(); }
+
+    public String getId() { return id; }
+    public Path getSaveDir() { return saveDir; }
+    public Path savePath() { return saveDir.resolve(SAVE_NAME); }
+    public Path legacySavePath() { return saveDir.resolve(LEGACY_SAVE_NAME); }
+    public Path journalPath() { return saveDir.resolve(JOURNAL_NAME); }
+    // Picture of the board shown while the next launch starts up (desktop only, see BoardPreview)
+    public Path previewPath() { return saveDir.resolve(PREVIEW_NAME); }
+    public boolean isDesktop() { return desktop; }
+    public long getMemoryBudgetBytes() { return memoryBudgetBytes; }
+    public int getSolverTableBits() { return solverTableBits; }
+}
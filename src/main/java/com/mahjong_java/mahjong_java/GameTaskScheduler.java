@@ -0,0 +1,111 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Runs the game's long actions (new deal, layout switch, shuffle, reset) in two halves: the work
+// on a virtual thread, then a short commit on the FX thread that swaps the result into the UI.
+// Only one action owns the UI at a time. Submitting a new one supersedes the previous: its thread
+// is interrupted and, if its work still completes, the stale commit is dropped, so however fast
+// requests arrive only the latest one ever touches the board. Everything except the work itself
+// must be called on the FX thread.
+public class GameTaskScheduler {
+    // Off-thread half; must not touch the scene graph or the controller's board
+    public interface Work<T> {
+        T compute() throws Exception;
+    }
+
+    // FX-thread half, only called if no newer action was submitted in the meantime
+    public interface Commit<T> {
+        void apply(T result);
+    }
+
+    // Shows or hides the loading overlay
+    public interface BusyListener {
+        void busyChanged(boolean busy, String message);
+    }
+
+    // Virtual threads are cheap enough to start one per action and per solver check, for every session
+    private static final ExecutorService VIRTUAL = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("game-task-", 0).factory());
+
+    private static final Metrics.Counter SUBMITTED = Metrics.counter("tasks.submitted");
+    private static final Metrics.Counter SUPERSEDED = Metrics.counter("tasks.superseded");
+
+    private final BusyListener listener;
+    private long generation;
+    private Future<?> running;
+    private long submitted;
+    private long superseded;
+
+    public GameTaskScheduler(BusyListener listener) {
+        this.listener = listener;
+    }
+
+    // Starts an action, cancelling the one in progress. The overlay stays up for at least minMillis
+    // so quick actions don't flicker.
+    public <T> void submit(String message, long minMillis, Work<T> work, Commit<T> commit) {
+        final long gen = ++generation;
+        submitted++;
+        SUBMITTED.increment();
+        if (running != null) {
+            running.cancel(true);
+            superseded++;
+            SUPERSEDED.increment();
+        }
+        listener.busyChanged(true, message);
+
+        final long start = System.nanoTime();
+        running = VIRTUAL.submit(() -> {
+            T result;
+            try {
+                result = work.compute();
+                long wait = TimeUnit.MILLISECONDS.toNanos(minMillis) - (System.nanoTime() - start);
+                if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                return; // superseded; the newer action owns the overlay
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    if (gen == generation) finish();
+                });
+                e.printStackTrace();
+                return;
+            }
+            Platform.runLater(() -> {
+                if (gen != generation) return;
+                finish();
+                commit.apply(result);
+            });
+        });
+    }
+
+    // Drops whatever is in progress without starting anything new
+    public void cancel() {
+        generation++;
+        if (running != null) {
+            running.cancel(true);
+            finish();
+        }
+    }
+
+    private void finish() {
+        running = null;
+        listener.busyChanged(false, null);
+    }
+
+    // True while an action is between submit and commit; input is ignored meanwhile
+    public boolean isBusy() { return running != null; }
+
+    public long getSubmittedCount() { return submitted; }
+    // Actions cancelled because a newer one arrived before they committed
+    public long getSupersededCount() { return superseded; }
+
+    // Fire-and-forget work that doesn't own the UI (the solver check keeps its own generation)
+    public static void background(Runnable task) {
+        VIRTUAL.execute(task);
+    }
+}
@@ -1,21 +1,139 @@
 package com.mahjong_java.mahjong_java;
 
+import com.jpro.webapi.WebAPI;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.nio.file.Files;
 
+// On the desktop there is one instance of this class. Under JPro there is one per browser tab, all
+// in the same JVM and on the same FX thread, so nothing here may be static except the shared caches.
 public class HelloApplication extends Application {
+    private HelloController controller;
+    private GameSession session;
+    private boolean stopped;
+
     @Override
     public void start(Stage stage) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(HelloApplication.class.getResource("hello-view.fxml"));
-        Scene scene = new Scene(fxmlLoader.load(), 1000, 800);
+        // Decode the tile faces in the background while the FXML is loading (once per JVM, not per session)
+        TileImageCache.preload();
+
+        Scene scene;
+        if (WebAPI.isBrowser()) {
+            WebAPI webAPI = WebAPI.getWebAPI(stage);
+            try {
+                session = GameSession.open(webAPI.getCookies().get(GameSession.COOKIE));
+            } catch (IllegalStateException full) {
+                scene = new Scene(new Label("The server is full right now. Please try again in a few minutes."), 1000, 800);
+                stage.setScene(scene);
+                stage.show();
+                return;
+            }
+            webAPI.setCookie(GameSession.COOKIE, session.getId());
+            webAPI.addInstanceCloseListener(this::stop);
+        } else {
+            session = GameSession.desktop();
+        }
+
+        // Desktop resume: put the picture of the board saved on the last exit on screen at once, then
+        // build the real UI on a background thread and swap it in. Nodes may be built off the FX thread
+        // as long as they aren't part of a showing scene yet.
+        Image preview = session.isDesktop() && Files.exists(session.savePath())
+                ? BoardPreview.readImage(session.previewPath()) : null;
+        if (preview != null) {
+            final Scene shown = new Scene(previewRoot(preview), 1000, 800);
+            Startup.firstFrame(shown, true);
+            show(stage, shown);
+            GameTaskScheduler.background(() -> {
+                try {
+                    Parent root = load(session);
+                    Platform.runLater(() -> attach(shown, root));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    Platform.runLater(Platform::exit);
+                }
+            });
+            return;
+        }
+
+        scene = new Scene(load(session), 1000, 800);
+        if (session.isDesktop()) Startup.firstFrame(scene, false);
+        attach(scene, scene.getRoot());
+        show(stage, scene);
+    }
+
+    private void show(Stage stage, Scene scene) {
         stage.setTitle("Mahjong Zen");
         stage.setScene(scene);
         scene.getStylesheets().add(getClass().getResource("style.css").toExternalForm());
         stage.setMaximized(true);
         stage.show();
     }
+
+    // Puts the game UI into the scene and hooks up the keys, pulse metrics and (desktop only) startup timing
+    private void attach(Scene scene, Parent root) {
+        if (stopped) {
+            // The window was closed while the UI was still loading
+            controller.shutdown();
+            return;
+        }
+        if (scene.getRoot() != root) scene.setRoot(root);
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, controller::handleDebugKey);
+        scene.addEventFilter(KeyEvent.KEY_PRESSED, controller::handleEditKey);
+        Metrics.watchPulses(scene);
+        if (session.isDesktop()) Startup.interactive(scene, controller::isReady);
+    }
+
+    // Stand-in for the game UI while it loads: the toolbar strip, and the saved board fitted into
+    // the game area the way HelloController.applySimpleResizing fits the real one
+    private static Parent previewRoot(Image preview) {
+        ImageView board = new ImageView(preview);
+        board.setPreserveRatio(true);
+        board.setSmooth(true);
+        StackPane area = new StackPane(board);
+        area.setStyle("-fx-background-color: #11111b;");
+        area.widthProperty().addListener((obs, oldVal, newVal) -> board.setFitWidth(newVal.doubleValue() * 0.90));
+        area.heightProperty().addListener((obs, oldVal, newVal) -> board.setFitHeight(newVal.doubleValue() * 0.90));
+
+        Region toolbar = new Region();
+        toolbar.setMinHeight(85);
+        toolbar.setPrefHeight(85);
+        toolbar.setStyle("-fx-background-color: #181825; -fx-border-color: #313244; -fx-border-width: 0 0 2 0;");
+
+        BorderPane root = new BorderPane(area);
+        root.setTop(toolbar);
+        return root;
+    }
+
+    // Builds the game UI for one session (also used by LoadTest)
+    Parent load(GameSession session) throws IOException {
+        this.session = session;
+        FXMLLoader fxmlLoader = new FXMLLoader(HelloApplication.class.getResource("hello-view.fxml"));
+        fxmlLoader.setControllerFactory(type -> new HelloController(session));
+        Parent root = fxmlLoader.load();
+        controller = fxmlLoader.getController();
+        return root;
+    }
+
+    HelloController getController() { return controller; }
+
+    // Runs on window close (desktop) or when the browser tab goes away (JPro); safe to call twice
+    @Override
+    public void stop() {
+        stopped = true;
+        if (controller != null) controller.shutdown();
+        else if (session != null) session.close();
+    }
 }
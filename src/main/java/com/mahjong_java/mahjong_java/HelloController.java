@@ -1,22 +1,23 @@
 package com.mahjong_java.mahjong_java;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.jpro.webapi.WebAPI;
 import javafx.animation.FadeTransition;
-import javafx.animation.ParallelTransition;
-import javafx.animation.PauseTransition;
 import javafx.application.Platform;
-import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.Group;
-import javafx.scene.Node;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCombination;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.util.Duration;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 public class HelloController {
     @FXML private BorderPane mainContainer;
@@ -25,43 +26,122 @@ public class HelloController {
     @FXML private Group rootPane;
     @FXML private Group zoomGroup;
     @FXML private Label percentageLabel;
+    @FXML private Label statusLabel;
+    @FXML private Label movesLabel;
+    @FXML private VBox stuckOverlay;
     @FXML private VBox loadingOverlay;
     @FXML private Label loadingLabel;
+    @FXML private CheckBox lowPowerToggle;
     @FXML private StackPane windowRoot;
     @FXML private Group globalScaleGroup;
 
-    // --- GLOBAL SPACING CONSTANTS (Ensures no misalignment) ---
-    // Tracks if the user is on a mobile device to disable heavy effects
+    // Tracks if the user is on a mobile device to disable heavy effects (switches to the Canvas renderer)
     private boolean isLowPerformanceMode = false;
 
     // Tracks the "design resolution" for your scaling math
     private static final double DESIGN_WIDTH = 1280.0;
     private static final double DESIGN_HEIGHT = 800.0;
-    private static final double TILE_W = 60.0;
-    private static final double TILE_H = 84.0;
-    private static final double GAP = 15.0;
-    private static final double Z_OFFSET = 5.0;
-    private static final double PADDING = 50.0;
+    private static final long DEAL_BUDGET_NANOS = 5_000_000L;
+    private static final long SOLVER_BUDGET_NANOS = 500_000_000L;
+    // Time a reshuffle may spend looking for a clearable deal; stays inside the overlay's ACTION_MIN_MILLIS
+    private static final long SHUFFLE_BUDGET_NANOS = 250_000_000L;
+    // Shortest time the loading overlay is shown, so it doesn't flicker (and the victory message can be read)
+    private static final long ACTION_MIN_MILLIS = 300;
+    private static final long VICTORY_MIN_MILLIS = 2000;
+
+    // Shared by every session; see Metrics and GameEvents
+    private static final Metrics.Timer DEAL_TIMER = Metrics.timer("deal.compute");
+    private static final Metrics.Timer DEAL_COMMIT_TIMER = Metrics.timer("deal.commit");
+    private static final Metrics.Timer SHUFFLE_TIMER = Metrics.timer("shuffle.compute");
+    private static final Metrics.Timer SHUFFLE_COMMIT_TIMER = Metrics.timer("shuffle.commit");
+    private static final Metrics.Timer MATCH_TIMER = Metrics.timer("match");
+    private static final Metrics.Timer SNAPSHOT_TIMER = Metrics.timer("save.snapshot");
+    private static final Metrics.Timer LOAD_TIMER = Metrics.timer("load");
+    private static final Metrics.Counter JOURNAL_BYTES = Metrics.counter("journal.bytes");
+    private static final Metrics.Counter UNDOS = Metrics.counter("history.undo");
+    private static final Metrics.Counter REDOS = Metrics.counter("history.redo");
+    private static final Metrics.Counter SHUFFLES_SOLVABLE = Metrics.counter("shuffle.solvable");
+    private static final Metrics.Counter SHUFFLES_FALLBACK = Metrics.counter("shuffle.fallback");
+
+    private static final KeyCombination UNDO_KEY = new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN);
+    private static final KeyCombination REDO_KEY = new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN);
+    private static final KeyCombination REDO_KEY_ALT = new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN, KeyCombination.SHIFT_DOWN);
 
     private int removedPairs = 0;
     private int TOTAL_PAIRS;
 
-    private static final int WIDTH = 24;
-    private static final int HEIGHT = 14;
-    private static final int LAYERS = 7;
-
-    private MahjongTile[][][] logicBoard = new MahjongTile[WIDTH][HEIGHT][LAYERS];
-    private MahjongTile firstSelected = null;
-    private static final String SAVE_FILE = System.getProperty("user.home") + File.separator + "mahjong_zen_save.json";
+    // Rules run against the headless board; the active BoardView only draws it. Each deal or load
+    // gets a fresh board for its layout.
+    private BoardState board = new BoardState(LayoutLibrary.get(LayoutLibrary.DEFAULT));
+    private final NodeBoardView nodeView = new NodeBoardView(this);
+    private final CanvasBoardView canvasView = new CanvasBoardView(this);
+    private BoardView view = nodeView;
+    // Changes to the board reach the view through here, one batch per pulse
+    private final BoardDeltas deltas = new BoardDeltas(tilesLeft -> updateProgressLabel());
+    private int selectedSlot = -1;
+    private final int[] hintPair = {-1, -1};
+
+    // Whose game this is: save locations and memory budget (one per browser tab under JPro)
+    private final GameSession session;
+
+    // Background check that the position can still be cleared; the TT is kept for the whole session
+    // and sized to its memory budget, while the worker threads are shared by every session
+    private final Solver solver;
+    private int solveGeneration = 0;
+    private static final int COMPACT_EVERY = 32;
+
+    // All disk writes go through here so the FX thread never blocks on I/O
+    private final SaveWriter saveWriter;
+
+    // Deals, layout switches and shuffles: computed off the FX thread, latest request wins
+    private final GameTaskScheduler tasks = new GameTaskScheduler(this::showBusy);
+
+    // F3 / F4 debug panel (built on first use)
+    private MetricsOverlay metricsOverlay;
+
+    // Moves since the last snapshot are appended here. loadGame replays the journal on the loading
+    // thread before the first job is queued; after that it is only touched on the writer thread.
+    private final MoveJournal journal;
+    private long gameId;
+    private int moveSeq;
+    private int movesSinceSnapshot;
+
+    // Every move of this game, for undo/redo; saved with the snapshot so it survives a restart
+    private final MoveHistory history = new MoveHistory();
+    private final MoveHistory.EntryMapper entryMapper = new MoveHistory.EntryMapper() {
+        @Override public int entryOf(int slot, byte type) { return HelloController.this.entryOf(slot, type); }
+        @Override public int slotOf(int entry) { return HelloController.this.slotOf(entry); }
+    };
 
     @FXML
     private boolean isLoadingFromSave = false;
+    private boolean shutDown = false;
+
+    // Created through the FXMLLoader's controller factory (see HelloApplication.load)
+    public HelloController(GameSession session) {
+        this.session = session;
+        this.solver = new Solver(session.getSolverTableBits(), ForkJoinPool.commonPool());
+        this.saveWriter = new SaveWriter(session.savePath());
+        this.journal = new MoveJournal(session.journalPath());
+    }
 
     @FXML
     public void initialize() {
         gameArea.setStyle("-fx-background-color: #11111b;");
+        deltas.attach(board);
         StackPane.setAlignment(zoomGroup, javafx.geometry.Pos.CENTER);
 
+        // The StackPane renderer stays the default; -Dmahjong.renderer=canvas starts in low-performance mode
+        isLowPerformanceMode = "canvas".equalsIgnoreCase(System.getProperty("mahjong.renderer"));
+        view = isLowPerformanceMode ? canvasView : nodeView;
+        deltas.setView(view);
+        rootPane.getChildren().setAll(view.getNode());
+        if (lowPowerToggle != null) lowPowerToggle.setSelected(isLowPerformanceMode);
+
+        // Filled before the listener goes on so populating the menu doesn't deal a game
+        layoutSelector.getItems().setAll(LayoutLibrary.names());
+        if (layoutSelector.getValue() == null) layoutSelector.setValue(LayoutLibrary.DEFAULT);
+
         layoutSelector.setButtonCell(new ListCell<String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
@@ -75,13 +155,12 @@ public class HelloController {
 
         layoutSelector.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
             if (newVal != null && !newVal.equals(oldVal) && !isLoadingFromSave) {
-                runGameAction("LOADING " + newVal.toUpperCase() + "...", () -> {
-                    Platform.runLater(this::setupGame);
-                });
+                setupGame("LOADING " + newVal.toUpperCase() + "...", ACTION_MIN_MILLIS);
             }
         });
 
-        File file = new File(SAVE_FILE);
+        File file = session.savePath().toFile();
+        if (!file.exists()) file = session.legacySavePath().toFile();
         if (file.exists() && file.length() > 0) {
             isLoadingFromSave = true;
             loadGame();
@@ -123,137 +202,125 @@ public class HelloController {
             globalScaleGroup.setTranslateY((windowHeight - totalScaledHeight) / 2);
         }
     }
-    private void runGameAction(String message, Runnable action) {
-        loadingOverlay.setVisible(true);
-        loadingLabel.setText(message);
-
-        Task<Void> task = new Task<>() {
-            @Override
-            protected Void call() throws Exception {
-                // Execute the shuffle/restart/layout logic
-                action.run();
-                // A tiny 300ms pause so the gold loader doesn't "flicker" too fast
-                Thread.sleep(300);
-                return null;
-            }
-        };
-
-        task.setOnSucceeded(e -> loadingOverlay.setVisible(false));
-        task.setOnFailed(e -> {
-            loadingOverlay.setVisible(false);
-            e.getSource().getException().printStackTrace();
-        });
-
-        new Thread(task).start();
+    private void showBusy(boolean busy, String message) {
+        if (busy) loadingLabel.setText(message);
+        loadingOverlay.setVisible(busy);
     }
 
-
+    // Deals a new game on the selected layout; supersedes any deal, shuffle or reset still in progress
     private void setupGame() {
-        new File(SAVE_FILE).delete();
-        rootPane.getChildren().clear();
-        logicBoard = new MahjongTile[WIDTH][HEIGHT][LAYERS];
-        firstSelected = null;
-
-        PauseTransition pause = new PauseTransition(Duration.millis(100));
-        pause.setOnFinished(event -> {
-            List<int[]> slots = getSelectedLayoutSlots();
-
-            // 1. FIXED PARITY: Ensure we have pairs
-            if (slots.size() % 2 != 0) slots.remove(slots.size() - 1);
-
-            // 2. FIXED PERCENTAGE: Set these BEFORE anything else
-            this.TOTAL_PAIRS = slots.size() / 2;
-            this.removedPairs = 0;
+        setupGame("DEALING...", 0);
+    }
 
-            List<String> pool = createSymbolPoolCustom(slots.size());
+    private void setupGame(String message, long minMillis) {
+        // At launch the UI can be built off the FX thread (see HelloApplication); deals always start on it
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> setupGame(message, minMillis));
+            return;
+        }
+        saveWriter.delete();
+        // The preview shows the board being replaced; the next launch would flash the wrong game
+        if (session.isDesktop()) saveWriter.execute(() -> Files.deleteIfExists(session.previewPath()));
+        clearBoard();
+        updateMoveStatus();
+
+        // 1. Off the FX thread: compile (or fetch) the layout and deal into a board nobody else sees yet
+        final String layoutName = layoutSelector.getValue();
+        tasks.submit(message, minMillis, () -> {
+            long start = System.nanoTime();
+            GameEvents.Deal event = new GameEvents.Deal();
+            event.begin();
+            Layout layout = LayoutLibrary.get(layoutName);
+
+            // Solvable by construction; only falls back to a plain shuffled pool if the budget runs out
+            byte[] pool = DealGenerator.generate(layout, new Random(), DEAL_BUDGET_NANOS);
+            event.solvable = pool != null;
+            if (pool == null) pool = DealGenerator.randomFaces(layout.size(), new Random());
 
             // We don't shuffle slots anymore to keep the layout structure predictable
-            // We only shuffle the pool of symbols
-            List<TilePosition> plan = new ArrayList<>();
-            for (int i = 0; i < slots.size(); i++) {
-                int[] s = slots.get(i);
-                plan.add(new TilePosition(s[0], s[1], s[2], pool.get(i)));
-            }
-
-            plan.sort(Comparator.comparingInt(p -> p.z));
-
-            // 3. FIXED GRID: Calculate bounds for the FULL layout once
-            double minX = Double.MAX_VALUE;
-            double minY = Double.MAX_VALUE;
-            for (TilePosition p : plan) {
-                double posX = (p.x * (TILE_W + GAP)) - (p.z * Z_OFFSET);
-                double posY = (p.y * (TILE_H + GAP)) - (p.z * Z_OFFSET);
-                minX = Math.min(minX, posX);
-                minY = Math.min(minY, posY);
-            }
-
-            List<MahjongTile> tiles = new ArrayList<>();
-            for (TilePosition p : plan) {
-                MahjongTile tile = new MahjongTile(p.symbol, this);
-                tile.setGridCoordinates(p.x, p.y, p.z);
-                logicBoard[p.x][p.y][p.z] = tile;
-
-                // Use the calculated minX/minY to "Lock" the tile positions
-                double posX = (p.x * (TILE_W + GAP)) - (p.z * Z_OFFSET);
-                double posY = (p.y * (TILE_H + GAP)) - (p.z * Z_OFFSET);
-
-                tile.setLayoutX(posX - minX + PADDING);
-                tile.setLayoutY(posY - minY + PADDING);
-
-                tile.setOpacity(0);
-                tiles.add(tile);
-                rootPane.getChildren().add(tile);
-            }
+            BoardState dealt = new BoardState(layout);
+            for (int slot = 0; slot < layout.size(); slot++) dealt.place(slot, pool[slot]);
+
+            event.layout = layout.getName();
+            event.tiles = layout.size();
+            event.commit();
+            DEAL_TIMER.stop(start);
+            return dealt;
+        }, dealt -> {
+            // 2. On the FX thread: adopt the board, then the view lays it out and fades it in
+            long start = System.nanoTime();
+            board = dealt;
+            this.TOTAL_PAIRS = dealt.size() / 2;
+            this.removedPairs = 0;
+            this.gameId = new Random().nextLong();
+            this.moveSeq = 0;
 
-            // 4. ANIMATION: Parallel fade-in
-            ParallelTransition pt = new ParallelTransition();
-            for (int i = 0; i < tiles.size(); i++) {
-                FadeTransition ft = new FadeTransition(Duration.millis(300), tiles.get(i));
-                ft.setToValue(1.0);
-                ft.setDelay(Duration.millis(i * 1.5));
-                pt.getChildren().add(ft);
-            }
-            pt.play();
+            view.rebuild(board, true);
+            deltas.attach(board);
 
             updateProgressLabel();
-            updateAllTileStatuses();
             saveGame();
+            updateMoveStatus();
+            checkWinnable();
+            DEAL_COMMIT_TIMER.stop(start);
 
             // Use runLater to ensure the layout is finished before centering the zoomGroup
             Platform.runLater(this::applySimpleResizing);
         });
-        pause.play();
     }
 
     public void handleTileClick(MahjongTile clickedTile) {
-        if (firstSelected == null) {
-            firstSelected = clickedTile;
-            firstSelected.select();
-        } else if (firstSelected == clickedTile) {
+        handleSlotClick(clickedTile.getSlot());
+    }
+
+    // Called by either renderer with the (free) slot that was clicked
+    public void handleSlotClick(int slot) {
+        // The board is about to be replaced or reshuffled
+        if (tasks.isBusy()) return;
+        clearHint();
+        if (selectedSlot < 0) {
+            selectedSlot = slot;
+            view.setHighlight(slot, BoardView.HIGHLIGHT_SELECTED);
+        } else if (selectedSlot == slot) {
             // DESELECT logic
-            firstSelected.deselect();
-            firstSelected = null;
+            clearSelection();
         } else {
-            if (firstSelected.getSymbol().equals(clickedTile.getSymbol())) {
-                removePair(firstSelected, clickedTile);
-                firstSelected = null;
+            if (board.canMatch(selectedSlot, slot)) {
+                int first = selectedSlot;
+                selectedSlot = -1;
+                removePair(first, slot);
             } else {
                 // FAILED MATCH logic
-                firstSelected.deselect();
-                firstSelected = null;
+                clearSelection();
             }
         }
     }
 
-    private void removePair(MahjongTile t1, MahjongTile t2) {
-        logicBoard[t1.getGridX()][t1.getGridY()][t1.getGridZ()] = null;
-        logicBoard[t2.getGridX()][t2.getGridY()][t2.getGridZ()] = null;
-        rootPane.getChildren().removeAll(t1, t2);
+    private void clearSelection() {
+        if (selectedSlot >= 0) view.setHighlight(selectedSlot, BoardView.HIGHLIGHT_NONE);
+        selectedSlot = -1;
+    }
+
+    private void removePair(int a, int b) {
+        long start = System.nanoTime();
+        GameEvents.Match event = new GameEvents.Match();
+        event.begin();
+        int changesBefore = deltas.getFreeChanges();
+
+        // The view and the progress label catch up on the next pulse (see BoardDeltas)
+        history.pushPair(a, b, board.typeAt(a));
+        board.remove(a);
+        board.remove(b);
 
         removedPairs++;
-        updateProgressLabel();
-        updateAllTileStatuses();
-        saveGame();
+        journalMove(MoveJournal.PAIR, MoveJournal.pairPayload(entryOf(a, (byte) 0), entryOf(b, (byte) 0)));
+        updateMoveStatus();
+        checkWinnable();
+
+        event.tilesLeft = board.getTileCount();
+        event.freeChanges = deltas.getFreeChanges() - changesBefore;
+        event.commit();
+        MATCH_TIMER.stop(start);
 
         // Necessary call: Check if that was the last pair
         if (removedPairs >= TOTAL_PAIRS && TOTAL_PAIRS > 0) {
@@ -261,342 +328,422 @@ public class HelloController {
         }
     }
     private void checkGameCompletion() {
-        loadingOverlay.setVisible(true);
-        loadingLabel.setText("VICTORY! GENERATING NEW BOARD...");
-
-        // Brief pause so the player sees the 100% progress before the reset
-        PauseTransition pause = new PauseTransition(Duration.seconds(2.0));
-        pause.setOnFinished(e -> {
-            loadingOverlay.setVisible(false);
-            setupGame();
-        });
-        pause.play();
+        // The overlay stays up a little longer so the player sees the 100% progress before the new deal
+        setupGame("VICTORY! GENERATING NEW BOARD...", VICTORY_MIN_MILLIS);
     }
 
-    private void updateAllTileStatuses() {
-        for (Node node : rootPane.getChildren()) {
-            if (node instanceof MahjongTile t) {
-                t.setBlocked(checkIfBlocked(t.getGridX(), t.getGridY(), t.getGridZ()));
-            }
-        }
-    }
+    // --- UNDO / REDO ---
 
-    private boolean checkIfBlocked(int x, int y, int z) {
-        if (z < LAYERS - 1 && logicBoard[x][y][z + 1] != null) return true;
-        boolean left = (x > 0 && logicBoard[x - 1][y][z] != null);
-        boolean right = (x < WIDTH - 1 && logicBoard[x + 1][y][z] != null);
-        return left && right;
+    // Puts the last pair back (or the faces a shuffle replaced). Only the restored tiles and their
+    // neighbours are touched: the board refreshes their free state incrementally and the view adds
+    // two nodes, so nothing is rebuilt.
+    @FXML
+    private void handleUndo() {
+        if (tasks.isBusy() || !history.canUndo()) return;
+        clearHint();
+        clearSelection();
+
+        undoMove();
+        UNDOS.increment();
+        afterHistoryMove(MoveJournal.UNDO);
     }
 
-    // --- SHUFFLE (Fixed Misalignment) ---
-
     @FXML
-    private void handleShuffle() {
-        // 1. Clear selection using the correct variable: firstSelected
-        if (firstSelected != null) {
-            firstSelected.deselect();
-            firstSelected = null;
+    private void handleRedo() {
+        if (tasks.isBusy() || !history.canRedo()) return;
+        clearHint();
+        clearSelection();
+
+        // Replaying a reshuffle repeats its search, so it gets the same off-thread treatment as the original
+        long next = history.peekRedo();
+        if (MoveHistory.kind(next) == MoveHistory.RESHUFFLE) {
+            // Read on the FX thread; the history itself is never touched off it
+            final long payload = history.payloadOf(next);
+            final BoardState copy = new BoardState(board);
+            tasks.submit("SHUFFLING TILES...", ACTION_MIN_MILLIS, () -> {
+                DealGenerator.replayReshuffle(copy, payload);
+                return copy;
+            }, shuffled -> {
+                history.redo();
+                applyFaces(shuffled);
+                REDOS.increment();
+                afterHistoryMove(MoveJournal.REDO);
+            });
+            return;
         }
 
-        // 2. Wrap the logic in the Loading UI
-        runGameAction("SHUFFLING TILES...", () -> {
-            // Collect existing tiles and symbols from the UI thread before background work
-            final List<MahjongTile> activeTiles = new ArrayList<>();
-            final List<String> symbols = new ArrayList<>();
-
-            // We use a temporary list to avoid ConcurrentModificationException
-            for (Node n : rootPane.getChildren()) {
-                if (n instanceof MahjongTile t) {
-                    activeTiles.add(t);
-                    symbols.add(t.getSymbol());
-                }
-            }
-
-            if (symbols.size() < 2) return;
+        redoMove();
+        REDOS.increment();
+        afterHistoryMove(MoveJournal.REDO);
+    }
 
-            // Shuffle the symbols in the background
-            Collections.shuffle(symbols);
+    private void afterHistoryMove(int journalKind) {
+        journalMove(journalKind, 0);
+        updateMoveStatus();
+        checkWinnable();
+    }
 
-            // Find current min bounds for centering
-            double minX = Double.MAX_VALUE;
-            double minY = Double.MAX_VALUE;
-            for (MahjongTile t : activeTiles) {
-                double rawX = (t.getGridX() * (TILE_W + GAP)) - (t.getGridZ() * Z_OFFSET);
-                double rawY = (t.getGridY() * (TILE_H + GAP)) - (t.getGridZ() * Z_OFFSET);
-                minX = Math.min(minX, rawX);
-                minY = Math.min(minY, rawY);
-            }
+    // Model halves of undo and redo, shared with journal replay; they return the record they applied
+    private long undoMove() {
+        long record = history.undo();
+        if (MoveHistory.kind(record) == MoveHistory.PAIR) {
+            byte type = MoveHistory.type(record);
+            board.place(MoveHistory.firstSlot(record), type);
+            board.place(MoveHistory.secondSlot(record), type);
+            removedPairs--;
+        } else {
+            history.restoreFaces(record, board);
+        }
+        return record;
+    }
 
-            final double finalMinX = minX;
-            final double finalMinY = minY;
+    private long redoMove() {
+        long record = history.redo();
+        if (MoveHistory.kind(record) == MoveHistory.PAIR) {
+            board.remove(MoveHistory.firstSlot(record));
+            board.remove(MoveHistory.secondSlot(record));
+            removedPairs++;
+        } else if (MoveHistory.kind(record) == MoveHistory.SHUFFLE) {
+            DealGenerator.shuffleFaces(board, new Random(history.payloadOf(record)));
+        } else {
+            DealGenerator.replayReshuffle(board, history.payloadOf(record));
+        }
+        return record;
+    }
 
-            // Update the UI on the JavaFX Thread
-            Platform.runLater(() -> {
-                rootPane.getChildren().clear();
-                logicBoard = new MahjongTile[WIDTH][HEIGHT][LAYERS];
+    // Ctrl+Z undoes, Ctrl+Y or Ctrl+Shift+Z redoes (Cmd on macOS)
+    public void handleEditKey(KeyEvent e) {
+        if (UNDO_KEY.match(e)) {
+            handleUndo();
+            e.consume();
+        } else if (REDO_KEY.match(e) || REDO_KEY_ALT.match(e)) {
+            handleRedo();
+            e.consume();
+        }
+    }
 
-                // Sort by Z to ensure correct 3D stacking order
-                activeTiles.sort(Comparator.comparingInt(MahjongTile::getGridZ));
+    // Both numbers come straight from the board's move index, so this is cheap enough to run after every move
+    private void updateMoveStatus() {
+        if (movesLabel != null) movesLabel.setText(board.getAvailablePairs() + " MOVES");
+        if (stuckOverlay != null) stuckOverlay.setVisible(board.isDeadlocked());
+    }
 
-                ParallelTransition pt = new ParallelTransition();
+    @FXML
+    private void handleHint() {
+        if (tasks.isBusy()) return;
+        clearHint();
+        clearSelection();
+        if (!board.findHint(hintPair)) return;
+
+        view.setHighlight(hintPair[0], BoardView.HIGHLIGHT_HINT);
+        view.setHighlight(hintPair[1], BoardView.HIGHLIGHT_HINT);
+    }
 
-                for (int i = 0; i < activeTiles.size(); i++) {
-                    MahjongTile old = activeTiles.get(i);
-                    int gx = old.getGridX();
-                    int gy = old.getGridY();
-                    int gz = old.getGridZ();
+    private void clearHint() {
+        for (int i = 0; i < hintPair.length; i++) {
+            int slot = hintPair[i];
+            if (slot >= 0 && board.isOccupied(slot)) view.setHighlight(slot, BoardView.HIGHLIGHT_NONE);
+            hintPair[i] = -1;
+        }
+    }
 
-                    // Create the new tile with the shuffled symbol
-                    MahjongTile replacement = new MahjongTile(symbols.get(i), this);
-                    replacement.setGridCoordinates(gx, gy, gz);
-                    replacement.setOpacity(0); // Set to 0 for fade-in effect
+    // Swaps renderers at runtime; the model is untouched, the new view is simply built from it
+    public void setLowPerformanceMode(boolean enabled) {
+        if (enabled == isLowPerformanceMode) return;
+        isLowPerformanceMode = enabled;
+        clearHint();
+        clearSelection();
+
+        view.clear();
+        view = enabled ? canvasView : nodeView;
+        deltas.setView(view);
+        rootPane.getChildren().setAll(view.getNode());
+        if (board.getTileCount() > 0) view.rebuild(board, false);
+        deltas.resync();
+        Platform.runLater(this::applySimpleResizing);
+    }
 
-                    double posX = (gx * (TILE_W + GAP)) - (gz * Z_OFFSET);
-                    double posY = (gy * (TILE_H + GAP)) - (gz * Z_OFFSET);
+    // F3 shows or hides the metrics panel, F4 writes the metrics next to this session's save and
+    // says where on the panel. The figures are server-wide, so browser players only get the keys
+    // when the server runs with -Dmahjong.debug=true.
+    public void handleDebugKey(KeyEvent e) {
+        if (!session.isDesktop() && !Boolean.getBoolean("mahjong.debug")) return;
+        if (e.getCode() == KeyCode.F3) {
+            metricsOverlay().toggle();
+            e.consume();
+        } else if (e.getCode() == KeyCode.F4) {
+            try {
+                metricsOverlay().showNote("Metrics written to " + Metrics.dump(session.getSaveDir()));
+            } catch (IOException ex) {
+                metricsOverlay().showNote("Could not write metrics: " + ex.getMessage());
+            }
+            e.consume();
+        }
+    }
 
-                    replacement.setLayoutX(posX - finalMinX + PADDING);
-                    replacement.setLayoutY(posY - finalMinY + PADDING);
+    private MetricsOverlay metricsOverlay() {
+        if (metricsOverlay == null) metricsOverlay = new MetricsOverlay(gameArea);
+        return metricsOverlay;
+    }
 
-                    logicBoard[gx][gy][gz] = replacement;
-                    rootPane.getChildren().add(replacement);
+    @FXML
+    private void handleRenderMode() {
+        setLowPerformanceMode(lowPowerToggle.isSelected());
+    }
 
-                    // Add fade-in animation to make the shuffle look smooth
-                    FadeTransition ft = new FadeTransition(Duration.millis(200), replacement);
-                    ft.setToValue(1.0);
-                    pt.getChildren().add(ft);
+    // Solves a snapshot of the board off the FX thread and warns only on a proven dead end;
+    // running out of budget just means "don't know", so the warning stays hidden
+    private void checkWinnable() {
+        solver.cancel();
+        final int generation = ++solveGeneration;
+        if (statusLabel != null) statusLabel.setVisible(false);
+        if (board.getTileCount() == 0) return;
+
+        final BoardState snapshot = new BoardState(board);
+        GameTaskScheduler.background(() -> {
+            Solver.Result result = solver.solve(snapshot, SOLVER_BUDGET_NANOS);
+            Platform.runLater(() -> {
+                if (generation == solveGeneration && statusLabel != null) {
+                    statusLabel.setVisible(result.status == Solver.Status.UNSOLVABLE);
                 }
-
-                pt.play();
-                updateAllTileStatuses();
-                saveGame();
             });
         });
     }
 
-    // --- LAYOUT SLOTS ---
-
-    private List<int[]> getSelectedLayoutSlots() {
-        String layout = layoutSelector.getValue();
-        if (layout == null) layout = "Turtle";
-        return switch (layout) {
-            case "Dragon" -> getDragonSlots();
-            case "Fortress" -> getFortressSlots();
-            case "Cloud" -> getCloudSlots();
-            case "Overpass" -> getOverpassSlots();
-            default -> getTurtleSlots();
-        };
+    private void clearBoard() {
+        hintPair[0] = -1;
+        hintPair[1] = -1;
+        selectedSlot = -1;
+        view.clear();
+        board.clear();
+        deltas.resync();
+        history.clear();
     }
 
-    private List<int[]> getTurtleSlots() {
-        List<int[]> s = new ArrayList<>();
-        for (int y = 0; y < 8; y++) for (int x = 0; x < 12; x++) {
-            if ((x == 0 || x == 11) && (y == 0 || y == 7)) continue;
-            s.add(new int[]{x + 2, y + 1, 0});
-        }
-        s.add(new int[]{1, 4, 0}); s.add(new int[]{1, 5, 0});
-        s.add(new int[]{14, 4, 0}); s.add(new int[]{14, 5, 0});
-        s.add(new int[]{0, 4, 0}); s.add(new int[]{15, 4, 0});
-        for (int y = 1; y < 7; y++) for (int x = 3; x < 9; x++) s.add(new int[]{x + 2, y + 1, 1});
-        for (int y = 2; y < 6; y++) for (int x = 4; x < 8; x++) s.add(new int[]{x + 2, y + 1, 2});
-        for (int y = 3; y < 5; y++) for (int x = 5; x < 7; x++) s.add(new int[]{x + 2, y + 1, 3});
-        s.add(new int[]{7, 4, 4}); s.add(new int[]{8, 4, 4});
-        return s;
-    }
-
-    private List<int[]> getDragonSlots() {
-        List<int[]> s = new ArrayList<>();
-
-        // 1. THE SPINE (3 Layers high in the center)
-        for (int x = 6; x < 18; x++) {
-            s.add(new int[]{x, 5, 0}); // Base
-            s.add(new int[]{x, 5, 1}); // Middle
-            if (x > 8 && x < 15) {
-                s.add(new int[]{x, 5, 2}); // Top Ridge
-            }
-        }
-
-        // 2. THE BODY/SIDES (2 Layers high)
-        for (int x = 7; x < 17; x++) {
-            s.add(new int[]{x, 4, 0});
-            s.add(new int[]{x, 4, 1});
-            s.add(new int[]{x, 6, 0});
-            s.add(new int[]{x, 6, 1});
-        }
 
-        // 3. THE LEGS / CLAWS (1 Layer - Spreading out)
-        int[] legsX = {7, 10, 13, 16};
-        for (int x : legsX) {
-            s.add(new int[]{x, 3, 0}); // Upper legs
-            s.add(new int[]{x, 7, 0}); // Lower legs
-            s.add(new int[]{x - 1, 2, 0}); // Claws
-            s.add(new int[]{x - 1, 8, 0});
-        }
+    // Saves and the journal address tiles by coordinates, never by slot number
+    private int entryOf(int slot, byte type) {
+        Layout layout = board.getLayout();
+        return SaveCodec.packEntry(layout.x(slot), layout.y(slot), layout.z(slot), type);
+    }
 
-        // 4. THE HEAD (A blocky 2x2 area at the front)
-        for (int z = 0; z < 3; z++) {
-            s.add(new int[]{18, 4, z});
-            s.add(new int[]{18, 5, z});
-            s.add(new int[]{19, 4, z});
-            s.add(new int[]{19, 5, z});
-        }
+    // -1 if the layout has no slot there (a save or journal from a different version of the layout)
+    private int slotOf(int entry) {
+        return board.getLayout().slotAt(SaveCodec.entryX(entry), SaveCodec.entryY(entry), SaveCodec.entryZ(entry));
+    }
 
-        // 5. THE TAIL (Tapering off at the back)
-        s.add(new int[]{5, 5, 0});
-        s.add(new int[]{4, 5, 0});
-        s.add(new int[]{3, 6, 0});
+    // --- SHUFFLE (Fixed Misalignment) ---
 
-        return s;
+    @FXML
+    private void handleShuffle() {
+        if (tasks.isBusy()) return;
+        // 1. Clear selection and any hint on screen
+        clearSelection();
+        clearHint();
+
+        // 2. Deal the remaining faces out again so the position can still be cleared, or at least has a
+        // move if the search runs out of time. The result is fully determined by the seed and the number
+        // of deals tried, so the journal only has to store those. It runs on a copy; input is ignored
+        // until the commit, so the copy can't go stale.
+        if (board.getTileCount() < 2) return;
+        final long seed = new Random().nextLong();
+        final BoardState copy = new BoardState(board);
+        final long[] payload = new long[1];
+        tasks.submit("SHUFFLING TILES...", ACTION_MIN_MILLIS, () -> {
+            long start = System.nanoTime();
+            GameEvents.Shuffle event = new GameEvents.Shuffle();
+            event.begin();
+            payload[0] = DealGenerator.reshuffle(copy, seed, SHUFFLE_BUDGET_NANOS);
+            event.tiles = copy.getTileCount();
+            event.solvable = DealGenerator.isSolvableReshuffle(payload[0]);
+            event.attempts = DealGenerator.reshuffleAttempts(payload[0]);
+            event.commit();
+            SHUFFLE_TIMER.stop(start);
+            return copy;
+        }, shuffled -> {
+            long start = System.nanoTime();
+            (DealGenerator.isSolvableReshuffle(payload[0]) ? SHUFFLES_SOLVABLE : SHUFFLES_FALLBACK).increment();
+            history.pushReshuffle(payload[0], board);
+            applyFaces(shuffled);
+            journalMove(MoveJournal.RESHUFFLE, payload[0]);
+
+            updateMoveStatus();
+            checkWinnable();
+            SHUFFLE_COMMIT_TIMER.stop(start);
+        });
     }
 
-    private List<int[]> getFortressSlots() {
-        List<int[]> s = new ArrayList<>();
+    // Copies the faces of a shuffled copy onto the board. Positions don't change, so the view only
+    // reskins the tiles whose face is different.
+    private void applyFaces(BoardState shuffled) {
+        for (int s = shuffled.nextTile(0); s >= 0; s = shuffled.nextTile(s + 1)) board.place(s, shuffled.typeAt(s));
+        FadeTransition ft = new FadeTransition(Duration.millis(200), rootPane);
+        ft.setFromValue(0);
+        ft.setToValue(1.0);
+        ft.play();
+    }
 
-        // 1. TALL TOWERS (Shifted inward to x=8 and x=13)
-        // 4 Layers high to emphasize the 3D blocky look
-        int[][] towers = {{8, 3}, {13, 3}, {8, 8}, {13, 8}};
-        for (int[] pos : towers) {
-            for (int z = 0; z < 4; z++) {
-                s.add(new int[]{pos[0], pos[1], z});
-                s.add(new int[]{pos[0] + 1, pos[1], z});
-                s.add(new int[]{pos[0], pos[1] + 1, z});
-                s.add(new int[]{pos[0] + 1, pos[1] + 1, z});
-            }
-        }
+    // --- SAVE/LOAD (Synchronized) ---
 
-        // 2. CONNECTING WALLS (2 Layers high)
-        // These link the towers into a square
-        for (int x = 10; x < 13; x++) {
-            s.add(new int[]{x, 3, 0}); s.add(new int[]{x, 3, 1}); // Top Wall
-            s.add(new int[]{x, 9, 0}); s.add(new int[]{x, 9, 1}); // Bottom Wall
+    // Builds a snapshot on the FX thread and hands it to the background writer
+    private void saveGame() {
+        long start = System.nanoTime();
+        GameSaveData data = new GameSaveData();
+
+        // Save the current board state
+        data.layout = board.getLayout().getName();
+        data.removedPairs = this.removedPairs;      // CRITICAL: Save current progress
+        data.totalPairsAtStart = this.TOTAL_PAIRS;  // CRITICAL: Save the goalpost
+        data.gameId = this.gameId;
+        data.journalSeq = this.moveSeq;
+
+        data.tiles = new int[board.getTileCount()];
+        int i = 0;
+        for (int s = board.nextTile(0); s >= 0; s = board.nextTile(s + 1)) {
+            data.tiles[i++] = entryOf(s, board.typeAt(s));
         }
-        for (int y = 5; y < 8; y++) {
-            s.add(new int[]{8, y, 0}); s.add(new int[]{8, y, 1}); // Left Wall
-            s.add(new int[]{14, y, 0}); s.add(new int[]{14, y, 1}); // Right Wall
+        data.history = history.export(entryMapper);
+        data.historyCursor = history.getCursor();
+
+        GameEvents.Save event = new GameEvents.Save();
+        if (event.isEnabled()) {
+            event.stage = "snapshot";
+            event.tiles = data.tiles.length;
+            event.commit();
         }
+        SNAPSHOT_TIMER.stop(start);
+        saveWriter.submit(data);
 
-        // 3. THE CENTER KEEP (3 Layers high)
-        for (int z = 0; z < 3; z++) {
-            s.add(new int[]{11, 6, z});
-        }
-
-        return s;
+        // The snapshot now covers every move so far; start an empty journal behind it
+        final long id = gameId;
+        saveWriter.execute(() -> journal.reset(id));
+        movesSinceSnapshot = 0;
     }
 
-    private List<int[]> getCloudSlots() {
-        List<int[]> s = new ArrayList<>();
-        for (int y = 4; y < 10; y++) for (int x = 6; x < 18; x++) s.add(new int[]{x, y, 0});
-        for (int y = 5; y < 9; y++) for (int x = 8; x < 16; x++) s.add(new int[]{x, y, 1});
-        return s;
+    // Appends one fixed-size record instead of rewriting the board, compacting every COMPACT_EVERY moves
+    private void journalMove(int kind, long payload) {
+        final int seq = ++moveSeq;
+        saveWriter.execute(() -> journal.append(kind, seq, payload));
+        JOURNAL_BYTES.add(MoveJournal.RECORD_BYTES);
+        if (++movesSinceSnapshot >= COMPACT_EVERY) saveGame();
     }
 
-    private List<int[]> getOverpassSlots() {
-        List<int[]> s = new ArrayList<>();
-
-        // 1. THE LEFT AND RIGHT TOWERS (Anchor points)
-        // Three layers thick to give it real weight
-        for (int z = 0; z < 3; z++) {
-            for (int y = 3; y < 9; y++) {
-                for (int x = 3; x < 6; x++) s.add(new int[]{x, y, z});    // Left Tower
-                for (int x = 18; x < 21; x++) s.add(new int[]{x, y, z}); // Right Tower
-            }
+    private void replayMove(int kind, long payload) {
+        if (kind == MoveJournal.PAIR) {
+            int a = slotOf(MoveJournal.firstEntry(payload));
+            int b = slotOf(MoveJournal.secondEntry(payload));
+            if (a < 0 || b < 0) throw new IllegalStateException("Journaled tile is not part of layout " + board.getLayout().getName());
+            history.pushPair(a, b, board.typeAt(a));
+            board.remove(a);
+            board.remove(b);
+            removedPairs++;
+        } else if (kind == MoveJournal.SHUFFLE) {
+            history.pushShuffle(payload, board);
+            DealGenerator.shuffleFaces(board, new Random(payload));
+        } else if (kind == MoveJournal.RESHUFFLE) {
+            history.pushReshuffle(payload, board);
+            DealGenerator.replayReshuffle(board, payload);
+        } else if (kind == MoveJournal.UNDO) {
+            undoMove(); // throws if the history has nothing to undo, like a missing tile above
+        } else if (kind == MoveJournal.REDO) {
+            redoMove();
         }
+    }
 
-        // 2. THE BRIDGE DECK (Layer 1 - The Floor)
-        // Connects the towers in the middle
-        for (int x = 6; x < 18; x++) {
-            for (int y = 5; y < 7; y++) s.add(new int[]{x, y, 1});
+    // Called from HelloApplication.stop() so the last move is never lost. Also closes the session.
+    public void shutdown() {
+        if (shutDown) return;
+        shutDown = true;
+        tasks.cancel();
+        solver.cancel();
+        // Clean exit: fold the journal into a fresh snapshot, and picture the board for the next launch
+        if (board.getTileCount() > 0) {
+            saveGame();
+            if (session.isDesktop()) savePreview();
         }
-
-        // 3. THE UPPER BRIDGE (Layer 2 - The Top Railing)
-        // This overlaps the deck so you see the 'Bridge' effect clearly
-        for (int x = 8; x < 16; x++) {
-            s.add(new int[]{x, 5, 2});
-            s.add(new int[]{x, 6, 2});
+        saveWriter.execute(journal::close);
+        if (session.isDesktop()) {
+            saveWriter.close(2, TimeUnit.SECONDS);
+            session.close();
+        } else {
+            // Don't hold up the shared FX thread. The session keeps its place until the files are
+            // written, so a tab that comes back meanwhile can't open the half-written save.
+            saveWriter.shutdown(session::close);
         }
-
-        return s;
     }
 
-    private List<String> createSymbolPoolCustom(int size) {
-        List<String> pool = new ArrayList<>();
-        String[] types = {"🀙", "🀚", "🀛", "🀜", "🀝", "🀞", "🀟", "🀠", "🀡", "🀐", "🀑", "🀒", "🀓", "🀔", "🀕", "🀖", "🀗", "🀘", "🀇", "🀈", "🀉", "🀊", "🀋", "🀌", "🀍", "🀎", "🀏", "🀀", "🀁", "🀂", "🀃", "🀢", "🀅", "🀆"};
-        for (int i = 0; i < size / 2; i++) {
-            String sym = types[i % types.length];
-            pool.add(sym); pool.add(sym);
-        }
-        Collections.shuffle(pool);
-        return pool;
+    // The snapshot is taken here on the FX thread; compressing and writing it happen on the writer thread
+    private void savePreview() {
+        clearHint();
+        clearSelection();
+        deltas.flush();
+        BoardPreview.Pixels pixels = BoardPreview.capture(view.getNode());
+        if (pixels != null) saveWriter.execute(() -> BoardPreview.write(session.previewPath(), pixels));
     }
 
-    // --- SAVE/LOAD (Synchronized) ---
+    // True once a board is on screen and no deal or shuffle is pending, i.e. clicks are taken
+    boolean isReady() { return !tasks.isBusy() && board.getTileCount() > 0; }
 
-    private void saveGame() {
-        try (FileWriter writer = new FileWriter(SAVE_FILE)) {
-            GameSaveData data = new GameSaveData();
-
-            // Save the current board state
-            data.layout = layoutSelector.getValue();
-            data.removedPairs = this.removedPairs;      // CRITICAL: Save current progress
-            data.totalPairsAtStart = this.TOTAL_PAIRS;  // CRITICAL: Save the goalpost
-
-            data.tiles = new ArrayList<>();
-            for (Node n : rootPane.getChildren()) {
-                if (n instanceof MahjongTile t) {
-                    data.tiles.add(new TileSaveState(t.getGridX(), t.getGridY(), t.getGridZ(), t.getSymbol()));
-                }
-            }
-
-            new GsonBuilder().setPrettyPrinting().create().toJson(data, writer);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
+    public BoardState getBoard() { return board; }
+    public GameSession getSession() { return session; }
 
     private void loadGame() {
-        try (FileReader reader = new FileReader(SAVE_FILE)) {
-            GameSaveData data = new Gson().fromJson(reader, GameSaveData.class);
-            layoutSelector.setValue(data.layout);
+        long start = System.nanoTime();
+        GameEvents.Load event = new GameEvents.Load();
+        event.begin();
+        try {
+            // The codec recognises old JSON saves by their content and imports them
+            Path savePath = session.savePath();
+            boolean legacy = !Files.exists(savePath);
+            Path source = legacy ? session.legacySavePath() : savePath;
+            GameSaveData data = SaveCodec.read(source);
+            event.bytes = Files.size(source);
+            Layout layout = LayoutLibrary.get(data.layout);
+            layoutSelector.setValue(layout.getName());
             this.removedPairs = data.removedPairs;
             this.TOTAL_PAIRS = data.totalPairsAtStart;
 
-            rootPane.getChildren().clear();
-            logicBoard = new MahjongTile[WIDTH][HEIGHT][LAYERS];
-
-            // 1. Sort by Z to prevent Z-fighting
-            data.tiles.sort(Comparator.comparingInt(t -> t.z));
-
-            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
-            for (TileSaveState ts : data.tiles) {
-                MahjongTile t = new MahjongTile(ts.symbol, this);
-                t.setGridCoordinates(ts.x, ts.y, ts.z);
-                logicBoard[ts.x][ts.y][ts.z] = t;
-
-                // USE SHARED MATH
-                double posX = (ts.x * (TILE_W + GAP)) - (ts.z * Z_OFFSET);
-                double posY = (ts.y * (TILE_H + GAP)) - (ts.z * Z_OFFSET);
+            // The new board gets no listener until the view has been built from it below
+            clearBoard();
+            board = new BoardState(layout);
 
-                t.setLayoutX(posX);
-                t.setLayoutY(posY);
-
-                minX = Math.min(minX, posX);
-                minY = Math.min(minY, posY);
-                rootPane.getChildren().add(t);
+            // 1. Restore the snapshot into the model (a tile the layout doesn't have means the save is stale)
+            for (int entry : data.tiles) {
+                int slot = slotOf(entry);
+                if (slot < 0) throw new IOException("Saved tile is not part of layout " + layout.getName());
+                board.place(slot, SaveCodec.entryType(entry));
             }
-
-            for (Node n : rootPane.getChildren()) {
-                n.setLayoutX(n.getLayoutX() - minX + PADDING);
-                n.setLayoutY(n.getLayoutY() - minY + PADDING);
+            history.load(data.history, data.historyCursor, entryMapper);
+
+            // 2. Replay the moves journaled after it (replayMove also advances removedPairs and the history)
+            this.gameId = data.gameId;
+            this.moveSeq = journal.replay(data.gameId, data.journalSeq, this::replayMove);
+            this.movesSinceSnapshot = moveSeq - data.journalSeq;
+            if (board.getTileCount() == 0) {
+                // The last pair was journaled but the next deal never got saved
+                setupGame();
+                return;
             }
 
+            // 3. Build the view for whatever is left
+            view.rebuild(board, false);
+            deltas.attach(board);
+
+            // 4. Fold the replayed moves into a fresh snapshot, so the save and the journal behind it are
+            // always in the current format (older saves, journals and JSON are converted on read)
+            saveGame();
+            if (legacy) saveWriter.execute(() -> Files.deleteIfExists(session.legacySavePath()));
+
             updateProgressLabel();
-            updateAllTileStatuses();
+            updateMoveStatus();
+            checkWinnable();
             Platform.runLater(this::applySimpleResizing);
 
-            // Inside loadGame() after the loop
-            this.removedPairs = data.removedPairs;
-            this.TOTAL_PAIRS = data.totalPairsAtStart;
-            updateProgressLabel(); // Force the label to update
-
+            event.layout = layout.getName();
+            event.tiles = board.getTileCount();
+            event.replayed = moveSeq - data.journalSeq;
+            event.commit();
+            LOAD_TIMER.stop(start);
         } catch (Exception e) {
             setupGame();
         }
@@ -640,27 +787,18 @@ public class HelloController {
     @FXML
     private void handleReset() {
         // 1. Clear any active selection
-        if (firstSelected != null) {
-            firstSelected.deselect();
-            firstSelected = null;
-        }
+        clearSelection();
 
-        // 2. Trigger the Loading Screen
-        runGameAction("RESTARTING BOARD...", () -> {
-            // Since setupGame touches the UI, we must push it to the UI Thread
-            Platform.runLater(this::setupGame);
-        });
+        // 2. Trigger the Loading Screen (a deal or shuffle still in progress is dropped)
+        setupGame("RESTARTING BOARD...", ACTION_MIN_MILLIS);
     }
+    // Package-private so LoadTest can deal a fresh game for a session that got stuck
     @FXML
-    private void handleNewGame() {
-        File file = new File(SAVE_FILE);
-        if (file.exists()) {
-            file.delete();
-        }
+    void handleNewGame() {
         setupGame();
     }
 
-    public static class GameSaveData { String layout; int removedPairs; int totalPairsAtStart; List<TileSaveState> tiles; }
-    public static class TileSaveState { int x, y, z; String symbol; public TileSaveState(int x, int y, int z, String symbol) { this.x=x; this.y=y; this.z=z; this.symbol=symbol; } }
-    public static class TilePosition { int x, y, z; String symbol; public TilePosition(int x, int y, int z, String symbol) { this.x=x; this.y=y; this.z=z; this.symbol=symbol; } }
+    // Tiles are SaveCodec packed entries (x, y, z, type); history is MoveHistory.export's int stream,
+    // of which the first historyCursor moves have been played
+    public static class GameSaveData { String layout; int removedPairs; int totalPairsAtStart; long gameId; int journalSeq; int[] tiles; int[] history; int historyCursor; }
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.mahjong_java.mahjong_java;
+
+import java.util.Arrays;
+
+// A compiled, immutable layout. Slots are numbered bottom layer first (then by row and column),
+// and every neighbour relation the rules need is worked out once here, so the board never does
+// coordinate arithmetic during play. Instances are cached by LayoutLibrary and shared by every
+// BoardState, solver and deal generator that plays on them.
+//
+// x and y are in half-tile units, so a tile can sit across two (or four) tiles of the layer below.
+// A tile covers [x, x + 2) x [y, y + 2); the relations come from rectangle overlap, not exact cells.
+public final class Layout {
+    // Largest coordinates a save can hold (see SaveCodec.packEntry); there is no other size limit
+    public static final int MAX_X = 1023;
+    public static final int MAX_Y = 1023;
+    public static final int MAX_Z = 63;
+
+    // Footprint of one tile in half units
+    public static final int TILE_SPAN = 2;
+
+    private final String name;
+    private final int[] xs, ys, zs;
+    private final CoordinateMap slotByCoord;
+    private final int maxZ;
+    private final long hashSeed;
+
+    // Neighbour relations as compressed lists: the entries for slot s are list[start[s] .. start[s + 1])
+    final int[] aboveStart, above;  // slots on the next layer overlapping s (any one of them blocks s)
+    final int[] belowStart, below;  // slots on the layer below overlapped by s (their state can change when s does)
+    final int[] leftStart, left;    // touching side neighbours; s is blocked when a left AND a right one are present
+    final int[] rightStart, right;
+
+    // Coordinates must already be range-checked (see LayoutParser); overlapping tiles on one layer are rejected here
+    Layout(String name, int[][] coords) {
+        this.name = name;
+        int n = coords.length;
+
+        // 1. Sort bottom-up so ascending slot order is also the painter's order
+        int[][] sorted = coords.clone();
+        Arrays.sort(sorted, (a, b) -> Long.compare(coordKey(a[0], a[1], a[2]), coordKey(b[0], b[1], b[2])));
+        xs = new int[n];
+        ys = new int[n];
+        zs = new int[n];
+        slotByCoord = new CoordinateMap(n);
+        long seed = name.hashCode();
+        for (int s = 0; s < n; s++) {
+            xs[s] = sorted[s][0];
+            ys[s] = sorted[s][1];
+            zs[s] = sorted[s][2];
+            long key = coordKey(xs[s], ys[s], zs[s]);
+            if (!slotByCoord.put(key, s)) throw new IllegalArgumentException(name + ".layout: duplicate slot " + describe(s));
+            seed = seed * 31 + key;
+        }
+        maxZ = n == 0 ? 0 : zs[n - 1];
+        hashSeed = mix(seed);
+
+        // 2. Uniform grid with one-tile buckets per layer: anything that can touch or overlap a tile
+        // lies in the few buckets around it, so each query only looks at a handful of slots
+        SpatialIndex index = new SpatialIndex(this);
+
+        // 3. Precompute the neighbours of every slot from rectangle overlap
+        int[] found = new int[16];
+        ListBuilder aboveList = new ListBuilder(n), belowList = new ListBuilder(n);
+        ListBuilder leftList = new ListBuilder(n), rightList = new ListBuilder(n);
+        for (int s = 0; s < n; s++) {
+            int x = xs[s], y = ys[s], z = zs[s];
+
+            // Same layer: anything overlapping is a broken layout
+            int k = index.query(x - 1, x + 1, y - 1, y + 1, z, found);
+            for (int i = 0; i < k; i++) {
+                if (found[i] != s) throw new IllegalArgumentException(name + ".layout: " + describe(s) + " overlaps " + describe(found[i]));
+            }
+
+            k = index.query(x - 1, x + 1, y - 1, y + 1, z + 1, found);
+            aboveList.add(s, found, k);
+            k = index.query(x - 1, x + 1, y - 1, y + 1, z - 1, found);
+            belowList.add(s, found, k);
+            k = index.query(x - TILE_SPAN, x - TILE_SPAN, y - 1, y + 1, z, found);
+            leftList.add(s, found, k);
+            k = index.query(x + TILE_SPAN, x + TILE_SPAN, y - 1, y + 1, z, found);
+            rightList.add(s, found, k);
+        }
+        aboveStart = aboveList.starts();
+        above = aboveList.items();
+        belowStart = belowList.starts();
+        below = belowList.items();
+        leftStart = leftList.starts();
+        left = leftList.items();
+        rightStart = rightList.starts();
+        right = rightList.items();
+    }
+
+    // Packs in-range coordinates so that ascending keys run bottom layer first, then by row and column
+    static long coordKey(int x, int y, int z) { return ((long) z << 42) | ((long) y << 21) | x; }
+
+    // SplitMix64 finalizer
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private String describe(int slot) {
+        return formatHalf(xs[slot]) + " " + formatHalf(ys[slot]) + " " + zs[slot];
+    }
+
+    // Half units back to the layout file's notation: 14 -> "7", 15 -> "7.5"
+    static String formatHalf(int half) {
+        return (half / 2) + (half % 2 != 0 ? ".5" : "");
+    }
+
+    public String getName() { return name; }
+    public int size() { return xs.length; }
+    public int x(int slot) { return xs[slot]; }
+    public int y(int slot) { return ys[slot]; }
+    public int z(int slot) { return zs[slot]; }
+
+    // Distinguishes positions on different layouts that happen to use the same slot numbers
+    public long getHashSeed() { return hashSeed; }
+
+    // Slot whose top-left corner is exactly at the given half-unit coordinates, or -1
+    public int slotAt(int x, int y, int z) {
+        if (x < 0 || y < 0 || z < 0 || x > MAX_X || y > MAX_Y || z > MAX_Z) return -1;
+        return slotByCoord.get(coordKey(x, y, z));
+    }
+
+    // The single left/right/below neighbour, or -1 if there is none or more than one
+    public int leftOf(int slot) { return leftStart[slot + 1] - leftStart[slot] == 1 ? left[leftStart[slot]] : -1; }
+    public int rightOf(int slot) { return rightStart[slot + 1] - rightStart[slot] == 1 ? right[rightStart[slot]] : -1; }
+    public int belowOf(int slot) { return belowStart[slot + 1] - belowStart[slot] == 1 ? below[belowStart[slot]] : -1; }
+
+    public int maxZ() { return maxZ; }
+
+    // --- COMPILE-TIME HELPERS ---
+
+    // One-tile buckets per layer, stored as compressed lists and found through a CoordinateMap
+    private static final class SpatialIndex {
+        private final Layout layout;
+        private final CoordinateMap bucketOf;
+        private final int[] start;
+        private final int[] slots;
+
+        SpatialIndex(Layout layout) {
+            this.layout = layout;
+            int n = layout.size();
+            bucketOf = new CoordinateMap(n);
+            int[] bucketOfSlot = new int[n];
+            int buckets = 0;
+            for (int s = 0; s < n; s++) {
+                long key = coordKey(layout.xs[s] / TILE_SPAN, layout.ys[s] / TILE_SPAN, layout.zs[s]);
+                int b = bucketOf.get(key);
+                if (b < 0) {
+                    b = buckets++;
+                    bucketOf.put(key, b);
+                }
+                bucketOfSlot[s] = b;
+            }
+
+            // Counting sort of the slots by bucket
+            start = new int[buckets + 1];
+            for (int s = 0; s < n; s++) start[bucketOfSlot[s] + 1]++;
+            for (int b = 0; b < buckets; b++) start[b + 1] += start[b];
+            slots = new int[n];
+            int[] fill = Arrays.copyOf(start, buckets);
+            for (int s = 0; s < n; s++) slots[fill[bucketOfSlot[s]]++] = s;
+        }
+
+        // Writes the slots on layer z whose corner lies in [x0, x1] x [y0, y1] into out; returns the count
+        int query(int x0, int x1, int y0, int y1, int z, int[] out) {
+            if (z < 0 || z > MAX_Z || x1 < 0 || y1 < 0) return 0;
+            int count = 0;
+            for (int by = Math.max(y0, 0) / TILE_SPAN; by <= y1 / TILE_SPAN; by++) {
+                for (int bx = Math.max(x0, 0) / TILE_SPAN; bx <= x1 / TILE_SPAN; bx++) {
+                    int b = bucketOf.get(coordKey(bx, by, z));
+                    if (b < 0) continue;
+                    for (int i = start[b]; i < start[b + 1]; i++) {
+                        int s = slots[i];
+                        int x = layout.xs[s], y = layout.ys[s];
+                        if (x >= x0 && x <= x1 && y >= y0 && y <= y1) out[count++] = s;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    // Accumulates one compressed neighbour list, slot by slot in ascending order
+    private static final class ListBuilder {
+        private final int[] starts;
+        private int[] items;
+        private int size;
+
+        ListBuilder(int slots) {
+            starts = new int[slots + 1];
+            items = new int[slots];
+        }
+
+        void add(int slot, int[] found, int count) {
+            starts[slot] = size;
+            if (size + count > items.length) items = Arrays.copyOf(items, Math.max(items.length * 2, size + count));
+            System.arraycopy(found, 0, items, size, count);
+            size += count;
+            starts[slot + 1] = size;
+        }
+
+        int[] starts() { return starts; }
+        int[] items() { return Arrays.copyOf(items, size); }
+    }
+}
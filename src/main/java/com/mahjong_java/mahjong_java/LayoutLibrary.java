@@ -0,0 +1,62 @@
+package com.mahjong_java.mahjong_java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Loads layouts from resources/.../Layouts. Each one is parsed, validated and compiled the first
+// time it is asked for and then shared for the rest of the session.
+public final class LayoutLibrary {
+    private static final String DIR = "/com/mahjong_java/mahjong_java/Layouts/";
+    public static final String DEFAULT = "Turtle";
+
+    private static final Map<String, Layout> CACHE = new ConcurrentHashMap<>();
+    private static volatile List<String> names;
+
+    private LayoutLibrary() {}
+
+    // Layout names from layouts.txt, in menu order
+    public static List<String> names() {
+        List<String> result = names;
+        if (result == null) {
+            result = new ArrayList<>();
+            try (InputStream is = LayoutLibrary.class.getResourceAsStream(DIR + "layouts.txt")) {
+                if (is == null) throw new IllegalStateException("Missing " + DIR + "layouts.txt");
+                BufferedReader in = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+                String line;
+                while ((line = in.readLine()) != null) {
+                    int hash = line.indexOf('#');
+                    if (hash >= 0) line = line.substring(0, hash);
+                    if (!line.isBlank()) result.add(line.trim());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            names = result = Collections.unmodifiableList(result);
+        }
+        return result;
+    }
+
+    // Unknown names fall back to the default layout, like the old selector switch did
+    public static Layout get(String name) {
+        if (name == null || !names().contains(name)) name = DEFAULT;
+        return CACHE.computeIfAbsent(name, LayoutLibrary::load);
+    }
+
+    private static Layout load(String name) {
+        try (InputStream is = LayoutLibrary.class.getResourceAsStream(DIR + name + ".layout")) {
+            if (is == null) throw new IllegalStateException("Missing layout file " + name + ".layout");
+            return LayoutParser.parse(name, new InputStreamReader(is, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
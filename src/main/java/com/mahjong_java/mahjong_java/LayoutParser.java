@@ -0,0 +1,91 @@
+package com.mahjong_java.mahjong_java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Reads the text layout format from resources/.../Layouts:
+//
+//   # comment
+//   x y z          one slot, in tile units
+//   2..13 1 0      any field may be an inclusive range; the line adds every combination
+//   7.5 4.5 4      x and y may sit half a tile over, e.g. one tile centred on a 2x2 block
+//
+// A layout is rejected (IllegalArgumentException naming the file and line) if a slot is out of
+// bounds, appears twice, or the total is odd and so could never be cleared. Tiles overlapping on
+// one layer are caught when the layout is compiled.
+public class LayoutParser {
+
+    private LayoutParser() {}
+
+    public static Layout parse(String name, Reader source) throws IOException {
+        List<int[]> slots = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        BufferedReader in = new BufferedReader(source);
+
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            String[] fields = line.split("\\s+");
+            if (fields.length != 3) throw error(name, lineNo, "expected \"x y z\" but got \"" + line + "\"");
+            // x and y are kept in half units, z in whole layers
+            int[] xr = range(name, lineNo, fields[0], Layout.MAX_X, true);
+            int[] yr = range(name, lineNo, fields[1], Layout.MAX_Y, true);
+            int[] zr = range(name, lineNo, fields[2], Layout.MAX_Z, false);
+
+            for (int z = zr[0]; z <= zr[1]; z++) {
+                for (int y = yr[0]; y <= yr[1]; y += Layout.TILE_SPAN) {
+                    for (int x = xr[0]; x <= xr[1]; x += Layout.TILE_SPAN) {
+                        if (!seen.add(Layout.coordKey(x, y, z))) {
+                            throw error(name, lineNo, "duplicate slot " + Layout.formatHalf(x) + " " + Layout.formatHalf(y) + " " + z);
+                        }
+                        slots.add(new int[]{x, y, z});
+                    }
+                }
+            }
+        }
+
+        if (slots.isEmpty()) throw error(name, lineNo, "layout has no slots");
+        if (slots.size() % 2 != 0) throw error(name, lineNo, "odd number of slots (" + slots.size() + ")");
+        return new Layout(name, slots.toArray(new int[0][]));
+    }
+
+    // "7" or "2..13" -> {from, to}, both within [0, max]. With halves allowed the result is in half
+    // units ("7.5" -> 15) and a range steps one whole tile, so both ends need the same fraction.
+    private static int[] range(String name, int lineNo, String field, int max, boolean halves) {
+        int dots = field.indexOf("..");
+        int from = value(name, lineNo, dots < 0 ? field : field.substring(0, dots), halves);
+        int to = dots < 0 ? from : value(name, lineNo, field.substring(dots + 2), halves);
+        if (from > to) throw error(name, lineNo, "empty range " + field);
+        if (halves && (to - from) % Layout.TILE_SPAN != 0) throw error(name, lineNo, "range ends must both be whole or both be half: " + field);
+        if (from < 0 || to > max) throw error(name, lineNo, field + " is outside the layout bounds");
+        return new int[]{from, to};
+    }
+
+    private static int value(String name, int lineNo, String text, boolean halves) {
+        try {
+            if (!halves) return Integer.parseInt(text);
+            if (text.endsWith(".5")) {
+                int whole = Integer.parseInt(text.substring(0, text.length() - 2));
+                return text.startsWith("-") ? whole * 2 - 1 : whole * 2 + 1;
+            }
+            return Integer.parseInt(text) * 2;
+        } catch (NumberFormatException e) {
+            throw error(name, lineNo, "not a number or range: \"" + text + "\"");
+        }
+    }
+
+    private static IllegalArgumentException error(String name, int lineNo, String message) {
+        return new IllegalArgumentException(name + ".layout:" + lineNo + ": " + message);
+    }
+}
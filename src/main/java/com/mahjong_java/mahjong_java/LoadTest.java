@@ -0,0 +1,226 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Load test for JPro server mode: opens many sessions in one JVM exactly as HelloApplication does
+// for browser tabs (FXML, controller, scene with the stylesheet, per-session saves), then has a few
+// client threads play moves in random sessions for a while. Reports heap per session and the
+// latency of each move, measured from the client posting it to the FX thread finishing it. All
+// sessions share that one FX thread, so queueing behind other sessions is part of the latency.
+// The full Metrics report (deal, match, save and pulse timings) is printed at the end.
+//
+// JavaFX needs a display; on a headless machine run it under xvfb-run.
+//
+//   mvn -Ploadtest compile exec:exec -Dload.args="--sessions 300 --clients 16 --seconds 30"
+public class LoadTest {
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        int sessions = 200;
+        int clients = 8;
+        int seconds = 20;
+        long seed = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--sessions" -> sessions = Integer.parseInt(value(args, ++i, arg));
+                case "--clients" -> clients = Integer.parseInt(value(args, ++i, arg));
+                case "--seconds" -> seconds = Integer.parseInt(value(args, ++i, arg));
+                case "--seed" -> seed = Long.parseLong(value(args, ++i, arg));
+                case "--help" -> {
+                    usage();
+                    return;
+                }
+                default -> {
+                    System.err.println("Unknown option: " + arg);
+                    usage();
+                    System.exit(2);
+                }
+            }
+        }
+
+        // Sessions save to a scratch directory unless one was given
+        Path dir = null;
+        if (System.getProperty("mahjong.sessions.dir") == null) {
+            dir = Files.createTempDirectory("mahjong-loadtest");
+            System.setProperty("mahjong.sessions.dir", dir.toString());
+        }
+
+        Platform.startup(() -> {});
+        TileImageCache.preload();
+        long baseline = usedHeapAfterGc();
+
+        // 1. Open the sessions one at a time, the way tabs connect
+        List<HelloApplication> apps = new ArrayList<>();
+        long[] openNanos = new long[sessions];
+        int opened = 0;
+        for (; opened < sessions; opened++) {
+            long start = System.nanoTime();
+            HelloApplication app = onFx(() -> {
+                GameSession session;
+                try {
+                    session = GameSession.open(null);
+                } catch (IllegalStateException full) {
+                    return null;
+                }
+                HelloApplication a = new HelloApplication();
+                Scene scene = new Scene(a.load(session), 1000, 800);
+                scene.getStylesheets().add(HelloApplication.class.getResource("style.css").toExternalForm());
+                Metrics.watchPulses(scene);
+                return a;
+            }, null);
+            if (app == null) break; // the session budget says the server is full
+            openNanos[opened] = System.nanoTime() - start;
+            apps.add(app);
+        }
+        if (opened == 0) throw new IllegalStateException("No session could be opened");
+        if (opened < sessions) System.out.printf(Locale.ROOT, "Server full after %d sessions%n", opened);
+
+        // Deals are laid out after a short pause, so wait until every board is populated
+        for (HelloApplication app : apps) {
+            while (!onFx(() -> app.getController().getBoard().getTileCount() > 0, false)) Thread.sleep(10);
+        }
+        long loaded = usedHeapAfterGc();
+
+        // 2. Play: each request is one matching pair in a random session (or a new deal if it is stuck)
+        // Clients get their own threads: the common pool is where the sessions' solvers run
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clientPool = Executors.newFixedThreadPool(clients);
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Random rnd = new Random(Layout.mix(seed + c));
+            workers.add(clientPool.submit(() -> play(apps, rnd, deadline)));
+        }
+        long[] latencies = new long[0];
+        for (Future<long[]> worker : workers) {
+            long[] part = worker.get();
+            int n = latencies.length;
+            latencies = Arrays.copyOf(latencies, n + part.length);
+            System.arraycopy(part, 0, latencies, n, part.length);
+        }
+        clientPool.shutdown();
+        Arrays.sort(latencies);
+
+        // 3. Close every session as if its tab went away, flushing its saves
+        for (HelloApplication app : apps) onFx(() -> { app.stop(); return null; }, null);
+
+        Arrays.sort(openNanos, 0, opened);
+        long perSession = (loaded - baseline) / opened;
+        System.out.printf(Locale.ROOT, "%d sessions, budget %.1f MB each, solver table 2^%d entries%n",
+                opened, apps.get(0).getController().getSession().getMemoryBudgetBytes() / 1048576.0,
+                apps.get(0).getController().getSession().getSolverTableBits());
+        System.out.printf(Locale.ROOT, "heap: %.1f MB shared, %.2f MB per session%n",
+                baseline / 1048576.0, perSession / 1048576.0);
+        System.out.printf(Locale.ROOT, "open:    p50 %7.2f ms  p95 %7.2f ms  max %7.2f ms%n",
+                ms(percentile(openNanos, opened, 0.50)), ms(percentile(openNanos, opened, 0.95)), ms(openNanos[opened - 1]));
+        if (latencies.length > 0) {
+            System.out.printf(Locale.ROOT, "request: p50 %7.2f ms  p95 %7.2f ms  p99 %7.2f ms  max %7.2f ms  (%d requests, %.0f/s)%n",
+                    ms(percentile(latencies, latencies.length, 0.50)), ms(percentile(latencies, latencies.length, 0.95)),
+                    ms(percentile(latencies, latencies.length, 0.99)), ms(latencies[latencies.length - 1]),
+                    latencies.length, latencies.length / (double) seconds);
+        }
+
+        System.out.println();
+        System.out.print(Metrics.report());
+
+        if (dir != null) deleteTree(dir);
+        Platform.exit();
+    }
+
+    // One client: requests back to back until the deadline; returns their latencies
+    private static long[] play(List<HelloApplication> apps, Random rnd, long deadline) {
+        long[] latencies = new long[1024];
+        int n = 0;
+        int[] pair = new int[2];
+        while (System.nanoTime() < deadline) {
+            HelloController controller = apps.get(rnd.nextInt(apps.size())).getController();
+            long start = System.nanoTime();
+            boolean done = onFx(() -> {
+                BoardState board = controller.getBoard();
+                if (!board.findHint(pair)) {
+                    if (board.getTileCount() > 0) controller.handleNewGame();
+                    return false;
+                }
+                controller.handleSlotClick(pair[0]);
+                controller.handleSlotClick(pair[1]);
+                return true;
+            }, false);
+            if (!done) continue; // new deals and boards between games aren't moves
+            if (n == latencies.length) latencies = Arrays.copyOf(latencies, n * 2);
+            latencies[n++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(latencies, n);
+    }
+
+    // Runs the call on the FX thread and waits for it; failures print and yield the fallback
+    private static <T> T onFx(Callable<T> call, T fallback) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(call.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            return result.join();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return fallback;
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static long percentile(long[] sorted, int n, double p) {
+        return sorted[Math.min(n - 1, (int) (p * n))];
+    }
+
+    private static double ms(long nanos) { return nanos / 1e6; }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        }
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Usage: LoadTest [options]
+                  --sessions N   sessions to open (default: 200; fewer if the session budget runs out)
+                  --clients C    client threads sending moves (default: 8)
+                  --seconds S    how long the clients play (default: 20)
+                  --seed S       seed for which session each request goes to (default: 1)""");
+    }
+}
@@ -10,17 +10,25 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.StrokeType;
+import javafx.scene.text.Text;
 
+// Scene-graph view of one occupied BoardState slot; the rules live in BoardState.
+// Nodes are pooled and re-skinned (see TilePool), so nothing here may assume a tile keeps its face.
 public class MahjongTile extends StackPane {
-    private String symbol;
+    private byte type;
     private boolean isBlocked = true;
-    private int gridX, gridY, gridZ;
+    private Layout layout;
+    private int slot;
     private HelloController controller;
     private Rectangle base;
     private ImageView symbolView;
+    private Text fallbackText;
 
-    public MahjongTile(String symbol, HelloController controller) {
-        this.symbol = symbol;
+    // Effects are immutable once built, so every tile shares the same two instances
+    private static final InnerShadow SELECT_GLOW = glow(Color.rgb(255, 226, 125, 0.6)); // Mild Gold
+    private static final InnerShadow HINT_GLOW = glow(Color.rgb(137, 180, 250, 0.7));   // Soft Blue
+
+    public MahjongTile(byte type, HelloController controller) {
         this.controller = controller;
 
         double w = 60;
@@ -44,37 +52,25 @@ public class MahjongTile extends StackPane {
         this.base.setStrokeWidth(1.2);
         this.base.setStrokeType(StrokeType.INSIDE);
 
-        // 3. IMAGE LOADING
-        try {
-            String fileName = mapSymbolToFileName(symbol);
-            String fullPath = "/com/mahjong_java/mahjong_java/Images/Black_PNG/" + fileName;
-
-            try (var is = getClass().getResourceAsStream(fullPath)) {
-                if (is != null) {
-                    Image img = new Image(is);
-                    this.symbolView = new ImageView(img);
-                    this.symbolView.setFitWidth(w * 0.60);
-                    this.symbolView.setFitHeight(h * 0.60);
-                    this.symbolView.setPreserveRatio(true);
-                    this.symbolView.setSmooth(true);
-                } else {
-                    createFallbackText(symbol);
-                }
-            }
-        } catch (Exception e) {
-            createFallbackText(symbol);
-        }
+        // 3. FACE IMAGE (the image itself comes from TileImageCache in reskin)
+        this.symbolView = new ImageView();
+        this.symbolView.setFitWidth(w * 0.60);
+        this.symbolView.setFitHeight(h * 0.60);
+        this.symbolView.setPreserveRatio(true);
+        this.symbolView.setSmooth(true);
+
+        // Only shown if a face PNG is missing
+        this.fallbackText = new Text();
+        this.fallbackText.setFill(Color.WHITE);
+        this.fallbackText.setFont(TileImageCache.fallbackFont());
 
         // 4. ASSEMBLY
-        this.getChildren().clear();
-        this.getChildren().addAll(body, this.base);
+        this.getChildren().addAll(body, this.base, this.symbolView, this.fallbackText);
+        StackPane.setAlignment(this.symbolView, Pos.CENTER);
+        this.symbolView.setTranslateX(-thickness/2);
+        this.symbolView.setTranslateY(-thickness/2);
 
-        if (this.symbolView != null) {
-            this.getChildren().add(this.symbolView);
-            StackPane.setAlignment(this.symbolView, Pos.CENTER);
-            this.symbolView.setTranslateX(-thickness/2);
-            this.symbolView.setTranslateY(-thickness/2);
-        }
+        reskin(type);
 
         this.setManaged(false);
         this.setCache(true);
@@ -87,48 +83,54 @@ public class MahjongTile extends StackPane {
         });
     }
 
-    public void select() {
-        InnerShadow mildGlow = new InnerShadow();
-        mildGlow.setRadius(15);
-        mildGlow.setChoke(0.5);
-        mildGlow.setColor(Color.rgb(255, 226, 125, 0.6)); // Mild Gold
-        this.base.setEffect(mildGlow);
+    // Swaps the face in place; used by shuffles and by the pool when a node is reused
+    public void reskin(byte type) {
+        this.type = type;
+        Image img = TileImageCache.get(type);
+        this.symbolView.setImage(img);
+        this.symbolView.setVisible(img != null);
+        this.fallbackText.setText(img == null ? TileType.of(type).getGlyph() : "");
+        this.fallbackText.setVisible(img == null);
     }
 
-    public void deselect() {
+    // Puts a pooled node back into its just-constructed state
+    public void reset() {
         this.base.setEffect(null);
+        this.isBlocked = true;
+        this.setOpacity(1.0);
+    }
+
+    private static InnerShadow glow(Color color) {
+        InnerShadow glow = new InnerShadow();
+        glow.setRadius(15);
+        glow.setChoke(0.5);
+        glow.setColor(color);
+        return glow;
     }
 
-    // Mappings for symbols to images
-    private String mapSymbolToFileName(String symbol) {
-        switch (symbol) {
-            case "🀙": return "Pin1.png"; case "🀚": return "Pin2.png"; case "🀛": return "Pin3.png";
-            case "🀜": return "Pin4.png"; case "🀝": return "Pin5.png"; case "🀞": return "Pin6.png";
-            case "🀟": return "Pin7.png"; case "🀠": return "Pin8.png"; case "🀡": return "Pin9.png";
-            case "🀐": return "Sou1.png"; case "🀑": return "Sou2.png"; case "🀒": return "Sou3.png";
-            case "🀓": return "Sou4.png"; case "🀔": return "Sou5.png"; case "🀕": return "Sou6.png";
-            case "🀖": return "Sou7.png"; case "🀗": return "Sou8.png"; case "🀘": return "Sou9.png";
-            case "🀇": return "Man1.png"; case "🀈": return "Man2.png"; case "🀉": return "Man3.png";
-            case "🀊": return "Man4.png"; case "🀋": return "Man5.png"; case "🀌": return "Man6.png";
-            case "🀍": return "Man7.png"; case "🀎": return "Man8.png"; case "🀏": return "Man9.png";
-            case "🀀": return "Ton.png"; case "🀁": return "Nan.png"; case "🀂": return "Shaa.png";
-            case "🀃": return "Pei.png"; case "🀅": return "Hatsu.png"; case "🀆": return "Man5-Dora.png";
-            case "🀢": return "Chun.png";
-            default: return "Pin1.png";
-        }
+    public void select() {
+        this.base.setEffect(SELECT_GLOW);
+    }
+
+    public void hint() {
+        this.base.setEffect(HINT_GLOW);
+    }
+
+    public void deselect() {
+        this.base.setEffect(null);
     }
 
-    private void createFallbackText(String symbol) {
-        javafx.scene.text.Text text = new javafx.scene.text.Text(symbol);
-        text.setFill(Color.WHITE);
-        text.setStyle("-fx-font-size: 30px;");
-        this.getChildren().add(text);
+    public void setSlot(Layout layout, int slot) {
+        this.layout = layout;
+        this.slot = slot;
     }
 
-    public void setGridCoordinates(int x, int y, int z) { this.gridX = x; this.gridY = y; this.gridZ = z; }
     public void setBlocked(boolean blocked) { this.isBlocked = blocked; }
-    public String getSymbol() { return symbol; }
-    public int getGridX() { return gridX; }
-    public int getGridY() { return gridY; }
-    public int getGridZ() { return gridZ; }
+    public byte getType() { return type; }
+    public TileType getTileType() { return TileType.of(type); }
+    public int getSlot() { return slot; }
+    // Layout coordinates (x and y in half-tile units)
+    public int getGridX() { return layout.x(slot); }
+    public int getGridY() { return layout.y(slot); }
+    public int getGridZ() { return layout.z(slot); }
 }
\ No newline at end of file
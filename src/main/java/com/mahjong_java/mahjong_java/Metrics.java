@@ -0,0 +1,113 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide counters and timers for the gameplay hot paths. Recording is a couple of atomic
+// adds, so the calls stay in release builds; the numbers are read by the F3 overlay, written out
+// by F4 (see MetricsOverlay) and mirrored as JFR events in GameEvents for a recording's timeline.
+// Under JPro every session records into the same registry, so the figures are server totals.
+public final class Metrics {
+    // One frame at 60 Hz; a pulse whose CSS and layout pass takes longer than this drops a frame
+    public static final long FRAME_NANOS = 16_666_667L;
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, Timer> TIMERS = new ConcurrentSkipListMap<>();
+
+    private Metrics() {}
+
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        public void add(long n) { value.add(n); }
+        public void increment() { value.increment(); }
+        public long get() { return value.sum(); }
+    }
+
+    // Count, total and worst case of a duration, plus the most recent one
+    public static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong lastNanos = new AtomicLong();
+
+        public void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            lastNanos.set(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        // Records the time since start (a System.nanoTime() value) and returns it
+        public long stop(long start) {
+            long nanos = System.nanoTime() - start;
+            record(nanos);
+            return nanos;
+        }
+
+        public long getCount() { return count.sum(); }
+        public long getMaxNanos() { return maxNanos.get(); }
+        public long getLastNanos() { return lastNanos.get(); }
+        public long getAverageNanos() {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / n;
+        }
+    }
+
+    public static Counter counter(String name) { return COUNTERS.computeIfAbsent(name, n -> new Counter()); }
+    public static Timer timer(String name) { return TIMERS.computeIfAbsent(name, n -> new Timer()); }
+
+    // --- FX PULSES ---
+
+    // Times the CSS and layout part of every pulse of the scene and counts the ones over a frame.
+    // Rendering happens after the post-layout listener, so this is a lower bound on the pulse.
+    public static void watchPulses(Scene scene) {
+        Timer pulses = timer("fx.pulse.layout");
+        Counter overruns = counter("fx.pulse.overruns");
+        long[] start = new long[1];
+        scene.addPreLayoutPulseListener(() -> start[0] = System.nanoTime());
+        scene.addPostLayoutPulseListener(() -> {
+            long nanos = pulses.stop(start[0]);
+            if (nanos > FRAME_NANOS) {
+                overruns.increment();
+                GameEvents.pulseOverrun(nanos);
+            }
+        });
+    }
+
+    // --- REPORTING ---
+
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Timer> e : TIMERS.entrySet()) {
+            Timer t = e.getValue();
+            sb.append(String.format(Locale.ROOT, "%-20s %8d  avg %8.3f ms  max %8.3f ms  last %8.3f ms%n", e.getKey(),
+                    t.getCount(), t.getAverageNanos() / 1e6, t.getMaxNanos() / 1e6, t.getLastNanos() / 1e6));
+        }
+        for (Map.Entry<String, Counter> e : COUNTERS.entrySet()) {
+            sb.append(String.format(Locale.ROOT, "%-20s %8d%n", e.getKey(), e.getValue().get()));
+        }
+        Runtime rt = Runtime.getRuntime();
+        sb.append(String.format(Locale.ROOT, "%-20s %8.1f MB of %.0f MB%n", "heap",
+                (rt.totalMemory() - rt.freeMemory()) / 1048576.0, rt.maxMemory() / 1048576.0));
+        return sb.toString();
+    }
+
+    // Writes the report to a timestamped file in dir and returns its path
+    public static Path dump(Path dir) throws IOException {
+        Instant now = Instant.now();
+        Path file = dir.resolve("mahjong_zen_metrics-" + now.toEpochMilli() + ".txt");
+        Files.writeString(file, "Mahjong Zen metrics at " + now + System.lineSeparator() + report(), StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.layout.StackPane;
+import javafx.util.Duration;
+
+// Debug panel over the game area showing Metrics.report(), refreshed twice a second while it is
+// visible and not at all otherwise. F3 toggles it and F4 writes the report to a file (see
+// HelloController.handleDebugKey).
+public class MetricsOverlay {
+    private final Label label = new Label();
+    private final Timeline refresh = new Timeline(new KeyFrame(Duration.millis(500), e -> update()));
+    private String note;
+
+    public MetricsOverlay(StackPane host) {
+        label.setStyle("-fx-font-family: monospace; -fx-font-size: 11px; -fx-text-fill: #cdd6f4;"
+                + " -fx-background-color: rgba(17, 17, 27, 0.85); -fx-background-radius: 6;");
+        label.setPadding(new Insets(8));
+        label.setMouseTransparent(true);
+        label.setVisible(false);
+        label.setManaged(false);
+        StackPane.setAlignment(label, Pos.TOP_LEFT);
+        host.getChildren().add(label);
+        refresh.setCycleCount(Animation.INDEFINITE);
+    }
+
+    // Shows the panel with the message above the report until it is hidden again
+    public void showNote(String message) {
+        note = message;
+        if (label.isVisible()) {
+            update();
+        } else {
+            toggle();
+        }
+    }
+
+    public void toggle() {
+        boolean show = !label.isVisible();
+        label.setVisible(show);
+        label.setManaged(show);
+        if (show) {
+            update();
+            refresh.play();
+        } else {
+            refresh.stop();
+            note = null;
+        }
+    }
+
+    private void update() {
+        label.setText(note == null ? Metrics.report() : note + System.lineSeparator() + System.lineSeparator() + Metrics.report());
+    }
+}
@@ -0,0 +1,218 @@
+package com.mahjong_java.mahjong_java;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+// Undo/redo history of the current game. Every move is one packed long:
+//
+//   PAIR:     kind (2 bits) | type (6 bits) | slot a (24 bits) | slot b (24 bits)
+//   SHUFFLE:  kind (2 bits) | tile count (24 bits) | offset into the face pool (32 bits)
+//   RESHUFFLE: the same, for a DealGenerator.reshuffle
+//
+// A shuffle keeps its payload (the seed, or the reshuffle's seed and tries) and the faces it
+// replaced in a shared int pool (payload high, payload low, then slot<<6 | type per tile), so
+// undoing it puts the old faces back and redoing it replays the payload.
+//
+// records[0..cursor) have been played; records[cursor..size) can be redone until the next new
+// move drops them.
+//
+// The controller applies the records to the board itself; this class only stores them. Saves
+// address tiles by coordinates, so export/load go through the controller's entry mapping.
+public class MoveHistory {
+    public static final int PAIR = 1;
+    public static final int SHUFFLE = 2;    // plain shuffleFaces, only found in older saves and journals
+    public static final int RESHUFFLE = 3;
+
+    private static final int SLOT_BITS = 24;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+
+    // Maps between board slots and SaveCodec packed entries
+    public interface EntryMapper {
+        int entryOf(int slot, byte type);
+        int slotOf(int entry); // -1 if the layout has no slot there
+    }
+
+    private long[] records = new long[64];
+    private int size;
+    private int cursor;
+    private int[] faces = new int[256];
+    private int faceCount;
+
+    public static int kind(long record) { return (int) (record >>> 62); }
+    public static byte type(long record) { return (byte) ((record >>> 48) & 0x3F); }
+    public static int firstSlot(long record) { return (int) ((record >>> SLOT_BITS) & SLOT_MASK); }
+    public static int secondSlot(long record) { return (int) (record & SLOT_MASK); }
+
+    private static long pairRecord(int a, int b, byte type) {
+        return (long) PAIR << 62 | (long) (type & 0x3F) << 48 | (a & SLOT_MASK) << SLOT_BITS | (b & SLOT_MASK);
+    }
+    private static long shuffleRecord(int kind, int count, int offset) {
+        return (long) kind << 62 | (count & SLOT_MASK) << 32 | (offset & 0xFFFFFFFFL);
+    }
+    private static int shuffleCount(long record) { return (int) ((record >>> 32) & SLOT_MASK); }
+    private static int shuffleOffset(long record) { return (int) record; }
+
+    public void clear() {
+        size = 0;
+        cursor = 0;
+        faceCount = 0;
+    }
+
+    public boolean canUndo() { return cursor > 0; }
+    public boolean canRedo() { return cursor < size; }
+    public int size() { return size; }
+    public int getCursor() { return cursor; }
+
+    // --- RECORDING (a new move drops whatever could have been redone) ---
+
+    public void pushPair(int a, int b, byte type) {
+        push(pairRecord(a, b, type));
+    }
+
+    // Both called before the board is shuffled, so the faces it still holds are the ones to restore
+    public void pushShuffle(long seed, BoardState board) {
+        pushFaces(SHUFFLE, seed, board);
+    }
+
+    public void pushReshuffle(long payload, BoardState board) {
+        pushFaces(RESHUFFLE, payload, board);
+    }
+
+    private void pushFaces(int kind, long payload, BoardState board) {
+        truncate();
+        int offset = faceCount;
+        int count = board.getTileCount();
+        ensureFaces(faceCount + 2 + count);
+        faces[faceCount++] = (int) (payload >>> 32);
+        faces[faceCount++] = (int) payload;
+        for (int s = board.nextTile(0); s >= 0; s = board.nextTile(s + 1)) {
+            faces[faceCount++] = s << 6 | board.typeAt(s);
+        }
+        push(shuffleRecord(kind, count, offset));
+    }
+
+    private void push(long record) {
+        truncate();
+        if (size == records.length) records = Arrays.copyOf(records, size * 2);
+        records[size++] = record;
+        cursor = size;
+    }
+
+    private void truncate() {
+        if (cursor == size) return;
+        size = cursor;
+        faceCount = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            if (kind(records[i]) != PAIR) {
+                faceCount = shuffleOffset(records[i]) + 2 + shuffleCount(records[i]);
+                break;
+            }
+        }
+    }
+
+    private void ensureFaces(int capacity) {
+        if (capacity > faces.length) faces = Arrays.copyOf(faces, Math.max(capacity, faces.length * 2));
+    }
+
+    // --- UNDO / REDO ---
+
+    // Steps back over the last played record and returns it
+    public long undo() {
+        if (cursor == 0) throw new IllegalStateException("Nothing to undo");
+        return records[--cursor];
+    }
+
+    // Steps forward over the next undone record and returns it
+    public long redo() {
+        if (cursor == size) throw new IllegalStateException("Nothing to redo");
+        return records[cursor++];
+    }
+
+    // The record redo() would return, without stepping over it
+    public long peekRedo() {
+        if (cursor == size) throw new IllegalStateException("Nothing to redo");
+        return records[cursor];
+    }
+
+    // The seed of a SHUFFLE, or the DealGenerator.reshuffle payload of a RESHUFFLE
+    public long payloadOf(long shuffle) {
+        int offset = shuffleOffset(shuffle);
+        return (long) faces[offset] << 32 | (faces[offset + 1] & 0xFFFFFFFFL);
+    }
+
+    // Puts back the faces a shuffle replaced; the tiles stay where they are, so only the move index changes
+    public void restoreFaces(long shuffle, BoardState board) {
+        int from = shuffleOffset(shuffle) + 2;
+        int to = from + shuffleCount(shuffle);
+        for (int i = from; i < to; i++) board.place(faces[i] >>> 6, (byte) (faces[i] & 0x3F));
+    }
+
+    // --- PERSISTENCE ---
+
+    // Flat int stream stored with the save, records in order:
+    //   PAIR:     PAIR, entry a, entry b
+    //   SHUFFLE:  SHUFFLE, seed high, seed low, count, count entries
+    //   RESHUFFLE: RESHUFFLE, payload high, payload low, count, count entries
+    public int[] export(EntryMapper mapper) {
+        int length = 0;
+        for (int i = 0; i < size; i++) length += kind(records[i]) == PAIR ? 3 : 4 + shuffleCount(records[i]);
+
+        int[] out = new int[length];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            long record = records[i];
+            if (kind(record) == PAIR) {
+                out[n++] = PAIR;
+                out[n++] = mapper.entryOf(firstSlot(record), type(record));
+                out[n++] = mapper.entryOf(secondSlot(record), type(record));
+            } else {
+                int offset = shuffleOffset(record);
+                int count = shuffleCount(record);
+                out[n++] = kind(record);
+                out[n++] = faces[offset];
+                out[n++] = faces[offset + 1];
+                out[n++] = count;
+                for (int j = offset + 2; j < offset + 2 + count; j++) {
+                    out[n++] = mapper.entryOf(faces[j] >>> 6, (byte) (faces[j] & 0x3F));
+                }
+            }
+        }
+        return out;
+    }
+
+    // Replaces the history with one read from a save
+    public void load(int[] in, int playedCount, EntryMapper mapper) throws IOException {
+        clear();
+        int i = 0;
+        while (i < in.length) {
+            int kind = in[i];
+            if (kind == PAIR && i + 3 <= in.length) {
+                int a = mappedSlot(in[i + 1], mapper);
+                int b = mappedSlot(in[i + 2], mapper);
+                push(pairRecord(a, b, SaveCodec.entryType(in[i + 1])));
+                i += 3;
+            } else if ((kind == SHUFFLE || kind == RESHUFFLE) && i + 4 <= in.length && in[i + 3] >= 0 && in[i + 3] <= in.length - i - 4) {
+                int count = in[i + 3];
+                int offset = faceCount;
+                ensureFaces(faceCount + 2 + count);
+                faces[faceCount++] = in[i + 1];
+                faces[faceCount++] = in[i + 2];
+                for (int j = i + 4; j < i + 4 + count; j++) {
+                    faces[faceCount++] = mappedSlot(in[j], mapper) << 6 | SaveCodec.entryType(in[j]);
+                }
+                push(shuffleRecord(kind, count, offset));
+                i += 4 + count;
+            } else {
+                throw new IOException("Corrupt move history at " + i);
+            }
+        }
+        if (playedCount < 0 || playedCount > size) throw new IOException("Corrupt history cursor " + playedCount);
+        cursor = playedCount;
+    }
+
+    private static int mappedSlot(int entry, EntryMapper mapper) throws IOException {
+        int slot = mapper.slotOf(entry);
+        if (slot < 0) throw new IOException("Tile in move history is not part of the layout");
+        return slot;
+    }
+}
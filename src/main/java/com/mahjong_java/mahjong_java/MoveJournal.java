@@ -0,0 +1,153 @@
+package com.mahjong_java.mahjong_java;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// Append-only log of the moves made since the last full snapshot. The snapshot stores the
+// game id and the sequence number it already includes; the journal header repeats the game id
+// so a journal left over from another game is never replayed on top of the wrong deal.
+//
+// Header (16 bytes):  int magic | int version | long gameId
+// Record (16 bytes):  int kind<<24 | seq | long payload | int crc32 of the first 12 bytes
+//
+// Records are only ever appended, so a crash can at worst leave one partial or garbled record
+// at the end; replay stops there and the tail is cut off before anything new is appended.
+// Every reset and append is forced to disk before it returns, so a move that was journaled
+// survives a power loss too.
+public class MoveJournal {
+    public static final int MAGIC = 0x4D4A4A4C; // "MJJL"
+    // 2: pair payloads hold tile coordinates instead of grid cell numbers
+    // 3: those coordinates are in half-tile units (version 2 journals are converted on replay)
+    public static final int VERSION = 3;
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 16;
+
+    // Record kinds
+    public static final int PAIR = 1;     // payload: the two tiles' coordinates, see pairPayload
+    public static final int SHUFFLE = 2;  // payload: the seed handed to DealGenerator.shuffleFaces
+    public static final int UNDO = 3;     // payload unused; steps back through the MoveHistory
+    public static final int REDO = 4;     // payload unused
+    public static final int RESHUFFLE = 5; // payload: what DealGenerator.reshuffle returned (seed and tries)
+
+    private static final int MAX_SEQ = (1 << 24) - 1;
+
+    // Called for every valid record newer than the snapshot, in order
+    public interface Replayer {
+        void apply(int kind, long payload);
+    }
+
+    private final Path path;
+    private final ByteBuffer recordBuffer = ByteBuffer.allocate(RECORD_BYTES);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+
+    public MoveJournal(Path path) {
+        this.path = path;
+    }
+
+    // Each half is a SaveCodec packed entry (type bits unused), so records stay valid whatever slot
+    // numbers the layout compiles to
+    public static long pairPayload(int a, int b) { return ((long) a << 32) | (b & 0xFFFFFFFFL); }
+    public static int firstEntry(long payload) { return (int) (payload >>> 32); }
+    public static int secondEntry(long payload) { return (int) payload; }
+
+    // Starts an empty journal for the given game (called right after its snapshot is written)
+    public void reset(long gameId) throws IOException {
+        FileChannel ch = channel();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(gameId).flip();
+        ch.truncate(0);
+        while (header.hasRemaining()) ch.write(header, header.position());
+        ch.force(true);
+        ch.position(HEADER_BYTES);
+    }
+
+    public void append(int kind, int seq, long payload) throws IOException {
+        if (seq < 0 || seq > MAX_SEQ) throw new IllegalArgumentException("Sequence out of range: " + seq);
+
+        recordBuffer.clear();
+        recordBuffer.putInt((kind << 24) | seq).putLong(payload);
+        crc.reset();
+        crc.update(recordBuffer.array(), 0, 12);
+        recordBuffer.putInt((int) crc.getValue()).flip();
+
+        FileChannel ch = channel();
+        while (recordBuffer.hasRemaining()) ch.write(recordBuffer);
+        ch.force(true);
+    }
+
+    // Replays the records written after afterSeq for the given game and returns the last sequence
+    // number seen. A missing journal, or one left by another game, is replaced by an empty one for
+    // this game. Anything after the first torn record is dropped so later appends continue from a
+    // clean tail.
+    public int replay(long gameId, int afterSeq, Replayer replayer) throws IOException {
+        if (!Files.exists(path)) {
+            reset(gameId);
+            return afterSeq;
+        }
+
+        FileChannel ch = channel();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && ch.read(header, header.position()) > 0) {}
+        header.flip();
+        int version = header.remaining() < HEADER_BYTES || header.getInt() != MAGIC ? -1 : header.getInt();
+        if ((version != VERSION && version != 2) || header.getLong() != gameId) {
+            reset(gameId);
+            return afterSeq;
+        }
+
+        long size = ch.size();
+        long pos = HEADER_BYTES;
+        int lastSeq = afterSeq;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+        while (pos + RECORD_BYTES <= size) {
+            record.clear();
+            while (record.hasRemaining() && ch.read(record, pos + record.position()) > 0) {}
+            record.flip();
+
+            int word = record.getInt();
+            long payload = record.getLong();
+            int stored = record.getInt();
+            crc.reset();
+            crc.update(record.array(), 0, 12);
+            if (stored != (int) crc.getValue()) break;
+
+            int seq = word & MAX_SEQ;
+            // Records already folded into the snapshot are skipped, not applied twice
+            if (seq > lastSeq) {
+                int kind = word >>> 24;
+                if (version == 2 && kind == PAIR) {
+                    payload = pairPayload(SaveCodec.fromTileUnits(firstEntry(payload)), SaveCodec.fromTileUnits(secondEntry(payload)));
+                }
+                replayer.apply(kind, payload);
+                lastSeq = seq;
+            }
+            pos += RECORD_BYTES;
+        }
+
+        ch.truncate(pos);
+        ch.force(true);
+        ch.position(pos);
+        return lastSeq;
+    }
+
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+        return channel;
+    }
+}
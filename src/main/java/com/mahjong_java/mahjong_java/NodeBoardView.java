@@ -0,0 +1,161 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.scene.Group;
+import javafx.scene.Node;
+
+import java.util.Arrays;
+
+// Default renderer: one pooled MahjongTile node per occupied slot
+public class NodeBoardView implements BoardView {
+    private static final Metrics.Timer REBUILD_TIMER = Metrics.timer("view.rebuild.nodes");
+
+    private final Group group = new Group();
+    private MahjongTile[] tiles = new MahjongTile[0];
+    private final TilePool pool;
+
+    // Which slots hold a node, as a Fenwick tree (index slot + 1), so a tile's child index, the
+    // number of occupied slots below it, costs O(log n) instead of a walk over the board
+    private int[] occupied = new int[1];
+
+    // Fade-in of a new deal; one timer for the whole board instead of a transition per tile
+    private final RevealAnimation reveal = new RevealAnimation();
+    private int[] revealOrder = new int[0];
+
+    // Where the last rebuild put the board's top-left corner, so restored tiles line up with the rest
+    private Layout layout;
+    private double originX;
+    private double originY;
+
+    public NodeBoardView(HelloController controller) {
+        this.pool = new TilePool(controller);
+    }
+
+    @Override
+    public Node getNode() { return group; }
+
+    @Override
+    public void rebuild(BoardState board, boolean animate) {
+        long start = System.nanoTime();
+        GameEvents.ViewRebuild event = new GameEvents.ViewRebuild();
+        event.begin();
+        int createdBefore = pool.getCreatedCount();
+
+        clear();
+        layout = board.getLayout();
+        if (tiles.length != layout.size()) {
+            tiles = new MahjongTile[layout.size()];
+            occupied = new int[layout.size() + 1];
+        }
+
+        // 1. FIXED GRID: bounds of the whole board, so every tile is locked relative to them
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        for (int c = board.nextTile(0); c >= 0; c = board.nextTile(c + 1)) {
+            minX = Math.min(minX, BoardView.projectX(layout, c));
+            minY = Math.min(minY, BoardView.projectY(layout, c));
+        }
+        originX = minX;
+        originY = minY;
+
+        // 2. Slots are numbered layer by layer, so walking them in order already stacks the nodes bottom-up
+        if (revealOrder.length < layout.size()) revealOrder = new int[layout.size()];
+        int n = 0;
+        for (int c = board.nextTile(0); c >= 0; c = board.nextTile(c + 1)) {
+            MahjongTile tile = pool.acquire(board.typeAt(c));
+            tile.setSlot(layout, c);
+            tile.setBlocked(!board.isFree(c));
+            place(tile, c);
+            group.getChildren().add(tile);
+            revealOrder[n++] = c;
+        }
+
+        // 3. ANIMATION: staggered fade-in, bottom layer first
+        if (animate) reveal.reveal(tiles, revealOrder, n);
+
+        event.renderer = "nodes";
+        event.tiles = board.getTileCount();
+        event.created = pool.getCreatedCount() - createdBefore;
+        event.commit();
+        REBUILD_TIMER.stop(start);
+    }
+
+    @Override
+    public void faceChanged(int slot, byte type) {
+        if (tiles[slot] != null) tiles[slot].reskin(type);
+    }
+
+    @Override
+    public void tileRemoved(int slot) {
+        MahjongTile tile = tiles[slot];
+        if (tile == null) return;
+        tiles[slot] = null;
+        group.getChildren().remove(occupiedBelow(slot));
+        markOccupied(slot, -1);
+        pool.release(tile);
+    }
+
+    @Override
+    public void tilePlaced(int slot, byte type) {
+        if (layout == null || tiles[slot] != null) return;
+        MahjongTile tile = pool.acquire(type);
+        tile.setSlot(layout, slot);
+        tile.setBlocked(true);
+        place(tile, slot);
+
+        // Children are kept in slot order (bottom layer first), so the tile goes after every lower slot
+        group.getChildren().add(occupiedBelow(slot), tile);
+    }
+
+    private void place(MahjongTile tile, int slot) {
+        tile.setLayoutX(BoardView.projectX(layout, slot) - originX + PADDING);
+        tile.setLayoutY(BoardView.projectY(layout, slot) - originY + PADDING);
+        tiles[slot] = tile;
+        markOccupied(slot, 1);
+    }
+
+    private void markOccupied(int slot, int delta) {
+        for (int i = slot + 1; i < occupied.length; i += i & -i) occupied[i] += delta;
+    }
+
+    // Occupied slots numbered lower than slot, i.e. the child index of slot's node
+    private int occupiedBelow(int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i) count += occupied[i];
+        return count;
+    }
+
+    @Override
+    public void freeChanged(int slot, boolean free) {
+        if (tiles[slot] != null) tiles[slot].setBlocked(!free);
+    }
+
+    // Every delta already went straight to its node
+    @Override
+    public void batchApplied() {}
+
+    @Override
+    public void setHighlight(int slot, int highlight) {
+        MahjongTile tile = tiles[slot];
+        if (tile == null) return;
+        switch (highlight) {
+            case HIGHLIGHT_SELECTED -> tile.select();
+            case HIGHLIGHT_HINT -> tile.hint();
+            default -> tile.deselect();
+        }
+    }
+
+    // Detaches every tile node and hands it back to the pool
+    @Override
+    public void clear() {
+        layout = null;
+        reveal.cancel();
+        group.getChildren().clear();
+        for (int c = 0; c < tiles.length; c++) {
+            if (tiles[c] != null) {
+                pool.release(tiles[c]);
+                tiles[c] = null;
+            }
+        }
+        Arrays.fill(occupied, 0);
+    }
+}
@@ -0,0 +1,104 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.animation.AnimationTimer;
+import javafx.scene.Node;
+
+// Staggered fade-in of a freshly dealt board, driven by one AnimationTimer. Tile i starts fading
+// STAGGER after tile i - 1 and is fully opaque FADE later; each frame works out the opacities from
+// the elapsed time alone, so a deal costs no animation objects however many tiles it has. Tiles
+// that are already opaque are never looked at again, so a frame only touches the ones mid-fade.
+//
+// If frames keep running over budget (a slow machine or a huge layout) the rest of the board is
+// shown at once instead of dragging the fade out.
+public class RevealAnimation extends AnimationTimer {
+    private static final long STAGGER_NANOS = 1_500_000L;
+    private static final long FADE_NANOS = 300_000_000L;
+
+    // Consecutive frames slower than this end the animation
+    private static final long SLOW_FRAME_NANOS = 2 * Metrics.FRAME_NANOS;
+    private static final int SLOW_FRAMES_ALLOWED = 3;
+
+    private static final Metrics.Counter SKIPPED = Metrics.counter("reveal.skipped");
+
+    private Node[] bySlot;
+    private int[] order = new int[0];
+    private int count;
+    private int firstFading; // everything before this index is fully shown
+    private long startNanos;
+    private long lastFrameNanos;
+    private int slowFrames;
+    private boolean running;
+
+    // Reveals the nodes bySlot[order[0]], bySlot[order[1]], ... in that order. bySlot is the view's
+    // own slot table: a slot that is set to null meanwhile (tile removed) is simply skipped.
+    public void reveal(Node[] bySlot, int[] order, int count) {
+        cancel();
+        this.bySlot = bySlot;
+        if (this.order.length < count) this.order = new int[count];
+        System.arraycopy(order, 0, this.order, 0, count);
+        this.count = count;
+        for (int i = 0; i < count; i++) {
+            Node node = bySlot[order[i]];
+            if (node != null) node.setOpacity(0);
+        }
+        firstFading = 0;
+        startNanos = -1;
+        slowFrames = 0;
+        running = true;
+        start();
+    }
+
+    @Override
+    public void handle(long now) {
+        // The first frame after a rebuild is slow anyway (all the new nodes are laid out), so time starts here
+        if (startNanos < 0) {
+            startNanos = now;
+            lastFrameNanos = now;
+        }
+        slowFrames = now - lastFrameNanos > SLOW_FRAME_NANOS ? slowFrames + 1 : 0;
+        lastFrameNanos = now;
+        if (slowFrames > SLOW_FRAMES_ALLOWED) {
+            SKIPPED.increment();
+            finish();
+            return;
+        }
+
+        long elapsed = now - startNanos;
+        for (int i = firstFading; i < count; i++) {
+            long t = elapsed - i * STAGGER_NANOS;
+            if (t <= 0) break; // later tiles start later still
+            Node node = bySlot[order[i]];
+            if (t >= FADE_NANOS) {
+                if (node != null) node.setOpacity(1.0);
+                if (i == firstFading) firstFading++;
+            } else if (node != null) {
+                node.setOpacity((double) t / FADE_NANOS);
+            }
+        }
+        if (firstFading == count) stopAndRelease();
+    }
+
+    // Shows whatever is still fading or waiting
+    public void finish() {
+        if (!running) return;
+        for (int i = firstFading; i < count; i++) {
+            Node node = bySlot[order[i]];
+            if (node != null) node.setOpacity(1.0);
+        }
+        stopAndRelease();
+    }
+
+    // Stops without touching the nodes (the view is about to recycle them)
+    public void cancel() {
+        if (running) stopAndRelease();
+    }
+
+    private void stopAndRelease() {
+        stop();
+        running = false;
+        bySlot = null;
+        count = 0;
+    }
+
+    public boolean isRunning() { return running; }
+}
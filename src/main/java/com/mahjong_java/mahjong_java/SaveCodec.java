@@ -0,0 +1,181 @@
+package com.mahjong_java.mahjong_java;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Binary save format. Everything is big-endian:
+//
+//   int magic | short version | short flags
+//   int removedPairs | int totalPairs | long gameId | int journalSeq
+//   short layoutLength | layout name (UTF-8)
+//   int tileCount | tileCount packed entries (see packEntry)
+//   int historyCursor | int historyLength | historyLength ints (see MoveHistory.export)
+//   int crc32 of everything before it
+//
+// Version 3 added the undo/redo history; older saves load with an empty one. Version 2 stores x
+// and y in half-tile units (see Layout); version 1 files and saves from the old JSON format (files
+// that start with '{') used whole tiles and are converted on read.
+public class SaveCodec {
+    public static final int MAGIC = 0x4D4A5A53; // "MJZS"
+    public static final short VERSION = 3;
+    private static final int[] NO_HISTORY = new int[0];
+
+    // Packed tile entry: x (10 bits) | y (10 bits) | z (6 bits) | type (6 bits)
+    public static int packEntry(int x, int y, int z, byte type) {
+        return (x & 0x3FF) << 22 | (y & 0x3FF) << 12 | (z & 0x3F) << 6 | (type & 0x3F);
+    }
+    public static int entryX(int entry) { return entry >>> 22; }
+    public static int entryY(int entry) { return (entry >>> 12) & 0x3FF; }
+    public static int entryZ(int entry) { return (entry >>> 6) & 0x3F; }
+    public static byte entryType(int entry) { return (byte) (entry & 0x3F); }
+
+    // Whole-tile x/y (version 1, JSON, journal version 2) to the half units used now
+    static int fromTileUnits(int entry) {
+        return packEntry(entryX(entry) * Layout.TILE_SPAN, entryY(entry) * Layout.TILE_SPAN, entryZ(entry), entryType(entry));
+    }
+
+    private SaveCodec() {}
+
+    // --- ENCODING ---
+
+    public static ByteBuffer encode(HelloController.GameSaveData data) {
+        byte[] layout = (data.layout == null ? "" : data.layout).getBytes(StandardCharsets.UTF_8);
+        int[] history = data.history == null ? NO_HISTORY : data.history;
+        int size = 4 + 2 + 2 + 4 + 4 + 8 + 4 + 2 + layout.length + 4 + data.tiles.length * 4 + 4 + 4 + history.length * 4 + 4;
+
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+        buf.putInt(data.removedPairs).putInt(data.totalPairsAtStart).putLong(data.gameId).putInt(data.journalSeq);
+        buf.putShort((short) layout.length).put(layout);
+        buf.putInt(data.tiles.length);
+        for (int entry : data.tiles) buf.putInt(entry);
+        buf.putInt(data.historyCursor).putInt(history.length);
+        for (int word : history) buf.putInt(word);
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        return buf.flip();
+    }
+
+    // Returns the number of bytes written. The data is on disk when this returns, so the file can be
+    // renamed over the real save without a crash ever exposing an empty or half-written one.
+    public static int write(Path path, HelloController.GameSaveData data) throws IOException {
+        ByteBuffer buf = encode(data);
+        int size = buf.remaining();
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        return size;
+    }
+
+    // --- DECODING ---
+
+    public static HelloController.GameSaveData read(Path path) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Save file too large: " + size);
+            buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && ch.read(buf) >= 0) {}
+        }
+        return decode(buf.flip());
+    }
+
+    public static HelloController.GameSaveData decode(ByteBuffer buf) throws IOException {
+        if (looksLikeJson(buf)) {
+            return importJson(new StringReader(StandardCharsets.UTF_8.decode(buf).toString()));
+        }
+        try {
+            int start = buf.position();
+            if (buf.getInt() != MAGIC) throw new IOException("Not a save file");
+            short version = buf.getShort();
+            if (version < 1 || version > VERSION) throw new IOException("Unsupported save version " + version);
+            buf.getShort(); // flags, reserved
+
+            HelloController.GameSaveData data = new HelloController.GameSaveData();
+            data.removedPairs = buf.getInt();
+            data.totalPairsAtStart = buf.getInt();
+            data.gameId = buf.getLong();
+            data.journalSeq = buf.getInt();
+
+            byte[] layout = new byte[buf.getShort() & 0xFFFF];
+            buf.get(layout);
+            data.layout = new String(layout, StandardCharsets.UTF_8);
+
+            int count = buf.getInt();
+            if (count < 0 || count > buf.remaining() / 4) throw new IOException("Corrupt tile count " + count);
+            data.tiles = new int[count];
+            for (int i = 0; i < count; i++) {
+                int entry = buf.getInt();
+                data.tiles[i] = version == 1 ? fromTileUnits(entry) : entry;
+            }
+
+            data.history = NO_HISTORY;
+            if (version >= 3) {
+                data.historyCursor = buf.getInt();
+                int length = buf.getInt();
+                if (length < 0 || length > buf.remaining() / 4) throw new IOException("Corrupt history length " + length);
+                data.history = new int[length];
+                for (int i = 0; i < length; i++) data.history[i] = buf.getInt();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(buf.array(), buf.arrayOffset() + start, buf.position() - start);
+            if (buf.getInt() != (int) crc.getValue()) throw new IOException("Save file checksum mismatch");
+            return data;
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("Truncated save file", e);
+        }
+    }
+
+    private static boolean looksLikeJson(ByteBuffer buf) {
+        for (int i = buf.position(); i < buf.limit(); i++) {
+            byte b = buf.get(i);
+            if (b == '{') return true;
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n') return false;
+        }
+        return false;
+    }
+
+    // --- LEGACY JSON IMPORT ---
+
+    // Shape of the old pretty-printed Gson save (one emoji string per tile)
+    private static class JsonSave { String layout; int removedPairs; int totalPairsAtStart; long gameId; int journalSeq; List<JsonTile> tiles; }
+    private static class JsonTile { int x, y, z; String symbol; }
+
+    public static HelloController.GameSaveData importJson(Reader reader) throws IOException {
+        JsonSave json;
+        try {
+            json = new Gson().fromJson(reader, JsonSave.class);
+        } catch (RuntimeException e) {
+            throw new IOException("Unreadable JSON save", e);
+        }
+        if (json == null || json.tiles == null) throw new IOException("Empty JSON save");
+
+        HelloController.GameSaveData data = new HelloController.GameSaveData();
+        data.layout = json.layout;
+        data.removedPairs = json.removedPairs;
+        data.totalPairsAtStart = json.totalPairsAtStart;
+        data.gameId = json.gameId;
+        data.journalSeq = json.journalSeq;
+        data.history = NO_HISTORY;
+        data.tiles = new int[json.tiles.size()];
+        for (int i = 0; i < data.tiles.length; i++) {
+            JsonTile t = json.tiles.get(i);
+            data.tiles[i] = fromTileUnits(packEntry(t.x, t.y, t.z, TileType.idOf(t.symbol)));
+        }
+        return data;
+    }
+}
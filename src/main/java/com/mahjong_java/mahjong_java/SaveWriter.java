@@ -0,0 +1,136 @@
+package com.mahjong_java.mahjong_java;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Writes save snapshots on a single background thread. The FX thread only hands over an
+// already-built snapshot; if several arrive while a write is in flight, only the newest one
+// is written. Every write goes to a temp file first, is flushed to disk and only then renamed
+// over the real file, so a crash or power loss mid-write leaves the previous save intact.
+public class SaveWriter {
+    // Small ordered I/O jobs (journal appends) that run on the writer thread between snapshots
+    public interface IoTask {
+        void run() throws IOException;
+    }
+
+    // Queued in place of a snapshot when the save should be removed instead of written
+    private static final Object DELETE = new Object();
+
+    // Process-wide figures for the metrics overlay; save.write and save.bytes cover snapshots only
+    private static final Metrics.Timer WRITE_TIMER = Metrics.timer("save.write");
+    private static final Metrics.Counter BYTES_WRITTEN = Metrics.counter("save.bytes");
+    private static final Metrics.Counter COALESCED = Metrics.counter("save.coalesced");
+    private static final Metrics.Counter FAILED = Metrics.counter("save.failed");
+
+    private final Path target;
+    private final Path temp;
+    private final ExecutorService executor;
+    private final AtomicReference<Object> pending = new AtomicReference<>();
+
+    public SaveWriter(Path target) {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        // A virtual thread: under JPro there is one writer per session, and they are idle nearly all the time
+        this.executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("save-writer").factory());
+    }
+
+    // Queues a snapshot; the caller must not touch it afterwards
+    public void submit(HelloController.GameSaveData snapshot) {
+        enqueue(snapshot);
+    }
+
+    // Queues removal of the save file, ordered after any write already queued
+    public void delete() {
+        enqueue(DELETE);
+    }
+
+    private void enqueue(Object item) {
+        // Only schedule a drain if none is pending; otherwise the queued drain will pick up the newest item
+        if (pending.getAndSet(item) == null) {
+            executor.execute(this::drain);
+        } else {
+            COALESCED.increment();
+        }
+    }
+
+    // Runs the task on the writer thread after everything queued before it
+    public void execute(IoTask task) {
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (IOException e) {
+                FAILED.increment();
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void drain() {
+        Object item = pending.getAndSet(null);
+        if (item == null) return;
+
+        long start = System.nanoTime();
+        try {
+            if (item == DELETE) {
+                Files.deleteIfExists(target);
+                return;
+            }
+            GameEvents.Save event = new GameEvents.Save();
+            event.begin();
+            HelloController.GameSaveData data = (HelloController.GameSaveData) item;
+            int bytes = SaveCodec.write(temp, data);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory();
+            event.stage = "write";
+            event.tiles = data.tiles.length;
+            event.bytes = bytes;
+            event.commit();
+            BYTES_WRITTEN.add(bytes);
+            WRITE_TIMER.stop(start);
+        } catch (IOException e) {
+            FAILED.increment();
+            e.printStackTrace();
+        }
+    }
+
+    // Makes the rename itself durable before the journal behind the new snapshot is reset. Directories
+    // can't be opened as files on Windows; NTFS journals the rename anyway, so that failure is ignored.
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(target.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // best effort
+        }
+    }
+
+    // Writes whatever is still pending, then runs done on the writer thread and lets the thread end.
+    // Returns at once; browser sessions use this because they share the FX thread with every other player.
+    public void shutdown(Runnable done) {
+        executor.execute(this::drain);
+        executor.execute(done);
+        executor.shutdown();
+    }
+
+    // Like shutdown, but waits for the writes; only the desktop app may block its FX thread on the disk
+    public void close(long timeout, TimeUnit unit) {
+        shutdown(() -> {});
+        try {
+            executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.mahjong_java.mahjong_java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+// Headless Monte Carlo runner for rating layouts: plays many games per layout with a pluggable
+// move strategy on every core and reports win rate, moves to deadlock and throughput. Only the
+// headless model is used (BoardState, DealGenerator, Solver), so no JavaFX toolkit is started.
+//
+// Every game's deal and move choices come from its own Random seeded from (seed, layout, game
+// number), and deals are bounded by tries rather than time, so a random or greedy run reproduces
+// exactly for the same arguments whatever the thread count or machine load. The solver strategy
+// only does when every deal is solved or proven dead within its time budget; a search cut short
+// falls back to greedy play, and where that happens depends on the clock.
+//
+//   mvn -Psimulate compile exec:exec -Dsim.args="--games 1000000 --strategy random,greedy"
+public class Simulator {
+    private static final int DEAL_ATTEMPTS = 1000;
+
+    // Picks the next pair to remove; strategies are created per worker thread, so they may keep state
+    public interface Strategy {
+        default void startGame(BoardState board) {}
+
+        // Called once the worker has played all its games
+        default void close() {}
+
+        // Writes the chosen pair into out[0..1]; false when there is no move left
+        boolean pickMove(BoardState board, Random rnd, int[] out);
+    }
+
+    // Totals for one layout and strategy
+    public static final class Stats {
+        public long games;
+        public long wins;
+        public long deadlocks;
+        public long movesToDeadlock;
+        public long elapsedNanos;
+
+        void add(Stats other) {
+            games += other.games;
+            wins += other.wins;
+            deadlocks += other.deadlocks;
+            movesToDeadlock += other.movesToDeadlock;
+        }
+
+        public double winRate() { return games == 0 ? 0 : (double) wins / games; }
+        public double meanMovesToDeadlock() { return deadlocks == 0 ? 0 : (double) movesToDeadlock / deadlocks; }
+        public double gamesPerSecond() { return elapsedNanos == 0 ? 0 : games * 1e9 / elapsedNanos; }
+    }
+
+    private Simulator() {}
+
+    // --- STRATEGIES ---
+
+    // Any available pair, uniformly
+    public static final class RandomStrategy implements Strategy {
+        @Override
+        public boolean pickMove(BoardState board, Random rnd, int[] out) {
+            int pairs = board.getAvailablePairs();
+            if (pairs == 0) return false;
+            return nthPair(board, rnd.nextInt(pairs), out);
+        }
+    }
+
+    // The pair that leaves the most tiles free afterwards (ties broken at random)
+    public static final class GreedyStrategy implements Strategy {
+        private int[] candidates = new int[8];
+
+        @Override
+        public boolean pickMove(BoardState board, Random rnd, int[] out) {
+            int best = -1;
+            int ties = 0;
+            for (int t = 0; t < BoardState.TYPE_COUNT; t++) {
+                // Trying a move reorders the board's free lists, so work from a copy
+                int n = board.freeCountOf(t);
+                if (n < 2) continue;
+                if (candidates.length < n) candidates = new int[n * 2];
+                for (int i = 0; i < n; i++) candidates[i] = board.freeSlotOf(t, i);
+
+                for (int i = 0; i < n; i++) {
+                    for (int j = i + 1; j < n; j++) {
+                        int a = candidates[i], b = candidates[j];
+                        board.remove(a);
+                        board.remove(b);
+                        int score = board.getFreeCount();
+                        board.place(a, (byte) t);
+                        board.place(b, (byte) t);
+
+                        if (score > best) {
+                            best = score;
+                            ties = 1;
+                            out[0] = a;
+                            out[1] = b;
+                        } else if (score == best && rnd.nextInt(++ties) == 0) {
+                            out[0] = a;
+                            out[1] = b;
+                        }
+                    }
+                }
+            }
+            return best >= 0;
+        }
+    }
+
+    // Solves each deal up front and plays the winning line; deals it can't solve within the
+    // budget are played greedily, so the win rate is a lower bound on how many deals are solvable
+    public static final class SolverStrategy implements Strategy {
+        private final ForkJoinPool pool = new ForkJoinPool(1);
+        private final Solver solver = new Solver(18, pool);
+        private final GreedyStrategy fallback = new GreedyStrategy();
+        private final long budgetNanos;
+        private int[] line = new int[0];
+        private int next;
+
+        public SolverStrategy(long budgetNanos) { this.budgetNanos = budgetNanos; }
+
+        @Override
+        public void startGame(BoardState board) {
+            Solver.Result result = solver.solve(board, budgetNanos);
+            line = result.moves;
+            next = 0;
+        }
+
+        @Override
+        public boolean pickMove(BoardState board, Random rnd, int[] out) {
+            if (next < line.length) {
+                out[0] = line[next++];
+                out[1] = line[next++];
+                return true;
+            }
+            return fallback.pickMove(board, rnd, out);
+        }
+
+        @Override
+        public void close() { pool.shutdownNow(); }
+    }
+
+    // The index-th pair in (type, i, j) order, read off the board's move index
+    static boolean nthPair(BoardState board, int index, int[] out) {
+        for (int t = 0; t < BoardState.TYPE_COUNT; t++) {
+            int n = board.freeCountOf(t);
+            int pairs = n * (n - 1) / 2;
+            if (index >= pairs) {
+                index -= pairs;
+                continue;
+            }
+            for (int i = 0; i < n; i++) {
+                int row = n - 1 - i;
+                if (index < row) {
+                    out[0] = board.freeSlotOf(t, i);
+                    out[1] = board.freeSlotOf(t, i + 1 + index);
+                    return true;
+                }
+                index -= row;
+            }
+        }
+        return false;
+    }
+
+    public static Supplier<Strategy> strategy(String name, long solverBudgetNanos) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "random" -> RandomStrategy::new;
+            case "greedy" -> GreedyStrategy::new;
+            case "solver" -> () -> new SolverStrategy(solverBudgetNanos);
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name + " (random, greedy, solver)");
+        };
+    }
+
+    // --- SIMULATION ---
+
+    // Plays games 0..games-1 on the given layout, striped across threads
+    public static Stats run(Layout layout, Supplier<Strategy> strategy, boolean solvableDeals,
+                            long games, long seed, int threads) throws Exception {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "simulator");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<Stats>> parts = new ArrayList<>(threads);
+            for (int w = 0; w < threads; w++) {
+                final int worker = w;
+                parts.add(pool.submit(() -> {
+                    Strategy s = strategy.get();
+                    try {
+                        return play(layout, s, solvableDeals, worker, threads, games, seed);
+                    } finally {
+                        s.close();
+                    }
+                }));
+            }
+            Stats total = new Stats();
+            for (Future<Stats> part : parts) total.add(part.get());
+            total.elapsedNanos = System.nanoTime() - start;
+            return total;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Stats play(Layout layout, Strategy strategy, boolean solvableDeals,
+                              int first, int stride, long games, long seed) {
+        Stats stats = new Stats();
+        BoardState board = new BoardState(layout);
+        int[] pair = new int[2];
+        for (long g = first; g < games; g += stride) {
+            Random rnd = new Random(Layout.mix(seed ^ layout.getHashSeed() ^ Layout.mix(g)));
+
+            // 1. Deal: solvable by construction, or a plain shuffle as the baseline
+            byte[] faces = solvableDeals ? DealGenerator.generateWithinTries(layout, rnd, DEAL_ATTEMPTS) : null;
+            if (faces == null) faces = DealGenerator.randomFaces(layout.size(), rnd);
+            board.clear();
+            for (int s = 0; s < faces.length; s++) board.place(s, faces[s]);
+
+            // 2. Play until the board is clear or nothing matches
+            strategy.startGame(board);
+            int moves = 0;
+            while (board.getTileCount() > 0 && strategy.pickMove(board, rnd, pair)) {
+                board.remove(pair[0]);
+                board.remove(pair[1]);
+                moves++;
+            }
+
+            stats.games++;
+            if (board.getTileCount() == 0) {
+                stats.wins++;
+            } else {
+                stats.deadlocks++;
+                stats.movesToDeadlock += moves;
+            }
+        }
+        return stats;
+    }
+
+    // --- CLI ---
+
+    public static void main(String[] args) throws Exception {
+        List<String> layouts = LayoutLibrary.names();
+        List<String> strategies = List.of("random", "greedy");
+        long games = 100_000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean solvableDeals = true;
+        long solverBudgetMs = 200;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--layouts" -> layouts = List.of(value(args, ++i, arg).split(","));
+                case "--strategy" -> strategies = List.of(value(args, ++i, arg).split(","));
+                case "--games" -> games = Long.parseLong(value(args, ++i, arg));
+                case "--seed" -> seed = Long.parseLong(value(args, ++i, arg));
+                case "--threads" -> threads = Integer.parseInt(value(args, ++i, arg));
+                case "--deals" -> solvableDeals = !"random".equalsIgnoreCase(value(args, ++i, arg));
+                case "--solver-budget-ms" -> solverBudgetMs = Long.parseLong(value(args, ++i, arg));
+                case "--help" -> {
+                    usage();
+                    return;
+                }
+                default -> {
+                    System.err.println("Unknown option: " + arg);
+                    usage();
+                    System.exit(2);
+                }
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%d games per layout, %s deals, seed %d, %d threads%n",
+                games, solvableDeals ? "solvable" : "random", seed, threads);
+        System.out.printf(Locale.ROOT, "%-10s %-8s %6s %10s %8s %18s %10s%n",
+                "layout", "strategy", "tiles", "wins", "win%", "moves-to-deadlock", "games/s");
+        for (String name : layouts) {
+            if (!LayoutLibrary.names().contains(name)) throw new IllegalArgumentException("Unknown layout: " + name);
+            Layout layout = LayoutLibrary.get(name);
+            for (String strategyName : strategies) {
+                Stats stats = run(layout, strategy(strategyName, solverBudgetMs * 1_000_000L), solvableDeals, games, seed, threads);
+                System.out.printf(Locale.ROOT, "%-10s %-8s %6d %10d %7.2f%% %18.1f %10.0f%n",
+                        layout.getName(), strategyName, layout.size(), stats.wins, stats.winRate() * 100,
+                        stats.meanMovesToDeadlock(), stats.gamesPerSecond());
+            }
+        }
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Usage: Simulator [options]
+                  --layouts a,b,...        layouts to rate (default: all)
+                  --strategy s,...         random, greedy, solver (default: random,greedy)
+                  --games N                games per layout and strategy (default: 100000)
+                  --deals solvable|random  generated solvable deals or plain shuffles (default: solvable)
+                  --seed S                 base seed; replays the same games unless a solver search
+                                           runs out of time (default: 1)
+                  --threads T              worker threads (default: all cores)
+                  --solver-budget-ms M     time the solver strategy gets per deal (default: 200)""");
+    }
+}
@@ -0,0 +1,467 @@
+package com.mahjong_java.mahjong_java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Decides whether a position can still be cleared. The first few plies are split into fork-join
+// tasks so idle cores steal whole subtrees; below that each task runs a plain depth-first search.
+// Positions proven dead are remembered in a shared, fixed-size transposition table keyed by a
+// Zobrist-style hash of the remaining tiles, so the table survives across solves of the same game.
+public class Solver {
+    public enum Status { SOLVABLE, UNSOLVABLE, TIMED_OUT, CANCELLED }
+
+    public static final class Result {
+        public final Status status;
+        // Winning line as consecutive slot pairs: {a1, b1, a2, b2, ...}; empty unless SOLVABLE
+        public final int[] moves;
+        public final long nodes;
+        public final long elapsedNanos;
+
+        Result(Status status, int[] moves, long nodes, long elapsedNanos) {
+            this.status = status;
+            this.moves = moves;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+
+    private static final int SPLIT_DEPTH = 3;
+    private static final long RESTART_BASE_NODES = 1024;
+    private static final int DEFAULT_TABLE_BITS = 20;
+
+    private final TranspositionTable deadPositions;
+    private final ForkJoinPool pool;
+    private volatile Search current;
+
+    public Solver() {
+        this(DEFAULT_TABLE_BITS, ForkJoinPool.commonPool());
+    }
+
+    public Solver(int tableBits, ForkJoinPool pool) {
+        this.deadPositions = new TranspositionTable(tableBits);
+        this.pool = pool;
+    }
+
+    // Layouts have any number of slots, so instead of a random table each (slot, type) key is mixed on
+    // the fly from the layout's seed; positions on different layouts never share keys in the table
+    public static long key(long seed, int slot, byte type) {
+        return Layout.mix(seed + (slot * (long) BoardState.TYPE_COUNT + type + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    public static long hash(BoardState state) {
+        long seed = state.getLayout().getHashSeed();
+        long h = 0;
+        for (int s = state.nextTile(0); s >= 0; s = state.nextTile(s + 1)) h ^= key(seed, s, state.typeAt(s));
+        return h;
+    }
+
+    // Blocks until the position is decided, the budget runs out or cancel() is called
+    public Result solve(BoardState state, long budgetNanos) {
+        long start = System.nanoTime();
+        Search search = new Search(start + budgetNanos);
+        current = search;
+
+        // Restart with a fresh move order and a growing node limit (Luby sequence) so one bad early
+        // choice can't eat the whole budget. Dead positions proven along the way carry over, and a
+        // round that finishes without hitting its limit is an exhaustive proof.
+        BoardState root = new BoardState(state);
+        long rootHash = hash(root);
+        for (int round = 1; !search.cancelled && !search.timedOut; round++) {
+            search.startRound(RESTART_BASE_NODES * luby(round), round);
+            pool.invoke(new SearchTask(search, new BoardState(root), rootHash, 0, new int[0]));
+            if (search.solution.get() != null || !search.limitHit) break;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        int[] line = search.solution.get();
+        if (line != null) return new Result(Status.SOLVABLE, line, search.nodes.get(), elapsed);
+        if (search.cancelled) return new Result(Status.CANCELLED, new int[0], search.nodes.get(), elapsed);
+        if (search.timedOut) return new Result(Status.TIMED_OUT, new int[0], search.nodes.get(), elapsed);
+        return new Result(Status.UNSOLVABLE, new int[0], search.nodes.get(), elapsed);
+    }
+
+    public void cancel() {
+        Search s = current;
+        if (s != null) s.cancelled = true;
+    }
+
+    // 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ...
+    static long luby(int i) {
+        int k = 1;
+        while ((1L << k) - 1 < i) k++;
+        if ((1L << k) - 1 == i) return 1L << (k - 1);
+        return luby(i - (1 << (k - 1)) + 1);
+    }
+
+    // --- SHARED SEARCH STATE ---
+
+    private static final class Search {
+        final long deadline;
+        final AtomicReference<int[]> solution = new AtomicReference<>();
+        final AtomicLong nodes = new AtomicLong();
+        final AtomicLong roundNodes = new AtomicLong();
+        volatile boolean cancelled;
+        volatile boolean timedOut;
+        volatile boolean limitHit;
+        volatile long nodeLimit;
+        volatile long seed;
+
+        Search(long deadline) { this.deadline = deadline; }
+
+        void startRound(long nodeLimit, long seed) {
+            this.nodeLimit = nodeLimit;
+            this.seed = seed;
+            this.limitHit = false;
+            this.roundNodes.set(0);
+        }
+
+        // Called every few thousand nodes by each searcher
+        void charge(long count) {
+            nodes.addAndGet(count);
+            if (roundNodes.addAndGet(count) > nodeLimit) limitHit = true;
+            if (System.nanoTime() > deadline) timedOut = true;
+        }
+
+        boolean stopped() { return cancelled || timedOut || limitHit || solution.get() != null; }
+    }
+
+    // --- PARALLEL TOP OF THE TREE ---
+
+    private final class SearchTask extends RecursiveAction {
+        private final Search search;
+        private final BoardState state;
+        private final long hash;
+        private final int depth;
+        private final int[] path;
+
+        SearchTask(Search search, BoardState state, long hash, int depth, int[] path) {
+            this.search = search;
+            this.state = state;
+            this.hash = hash;
+            this.depth = depth;
+            this.path = path;
+        }
+
+        @Override
+        protected void compute() {
+            if (search.stopped()) return;
+            if (state.getTileCount() == 0) {
+                search.solution.compareAndSet(null, path);
+                return;
+            }
+            if (deadPositions.contains(hash)) return;
+
+            Searcher searcher = new Searcher(search, state, path);
+            if (depth >= SPLIT_DEPTH) {
+                searcher.run(hash);
+                return;
+            }
+
+            // 1. Fork one subtask per candidate move; idle workers steal them
+            int count = searcher.generateMoves(0);
+            int[] moves = searcher.moves[0];
+            List<SearchTask> children = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int a = moves[2 * i], b = moves[2 * i + 1];
+                byte type = state.typeAt(a);
+                BoardState next = new BoardState(state);
+                next.remove(a);
+                next.remove(b);
+                int[] childPath = Arrays.copyOf(path, path.length + 2);
+                childPath[path.length] = a;
+                childPath[path.length + 1] = b;
+                long seed = state.getLayout().getHashSeed();
+                children.add(new SearchTask(search, next, hash ^ key(seed, a, type) ^ key(seed, b, type), depth + 1, childPath));
+            }
+            invokeAll(children);
+
+            // 2. Only an exhaustive, uninterrupted pass proves the position dead
+            if (!search.stopped()) deadPositions.add(hash);
+        }
+    }
+
+    // --- SEQUENTIAL BOTTOM OF THE TREE ---
+
+    // Depth-first search with make/unmake on a private board; all buffers are allocated up front
+    private final class Searcher {
+        private final Search search;
+        private final BoardState state;
+        private final Layout layout;
+        private final long seed;
+        private final int[] prefix;
+        private final int[] line;
+        private final int[][] moves;
+        private final int[] remaining = new int[BoardState.TYPE_COUNT];
+        private final int[][] tilesOfType;
+        private final int[] visitStamp;
+        private final int[] walkStack;
+        private int stamp;
+        private long localNodes;
+        private final SplittableRandom rnd;
+
+        Searcher(Search search, BoardState state, int[] prefix) {
+            this.search = search;
+            this.state = state;
+            this.layout = state.getLayout();
+            this.seed = layout.getHashSeed();
+            this.prefix = prefix;
+            this.visitStamp = new int[layout.size()];
+
+            for (int c = state.nextTile(0); c >= 0; c = state.nextTile(c + 1)) remaining[state.typeAt(c)]++;
+            int maxDepth = state.getTileCount() / 2 + 1;
+            this.line = new int[state.getTileCount()];
+            this.moves = new int[maxDepth][];
+            this.walkStack = new int[state.getTileCount() * 2 + 2];
+            this.rnd = new SplittableRandom(search.seed * 0x9E3779B97F4A7C15L + prefix.length);
+
+            this.tilesOfType = new int[BoardState.TYPE_COUNT][];
+            for (int t = 0; t < BoardState.TYPE_COUNT; t++) tilesOfType[t] = new int[remaining[t]];
+            int[] fill = new int[BoardState.TYPE_COUNT];
+            for (int c = state.nextTile(0); c >= 0; c = state.nextTile(c + 1)) {
+                byte t = state.typeAt(c);
+                tilesOfType[t][fill[t]++] = c;
+            }
+        }
+
+        void run(long hash) {
+            for (int t = 0; t < BoardState.TYPE_COUNT; t++) {
+                if (stackDeadlock(t) || (remaining[t] == 2 && pairDeadlock(t))) {
+                    deadPositions.add(hash);
+                    search.charge(1);
+                    return;
+                }
+            }
+            if (dfs(hash, 0)) {
+                int[] full = Arrays.copyOf(prefix, prefix.length + line.length);
+                System.arraycopy(line, 0, full, prefix.length, line.length);
+                search.solution.compareAndSet(null, full);
+            }
+            search.charge(localNodes & 1023);
+        }
+
+        // Fills moves[depth] with candidate pairs (read straight off the board's move index)
+        int generateMoves(int depth) {
+            int needed = 0;
+            for (int t = 0; t < BoardState.TYPE_COUNT; t++) {
+                int n = state.freeCountOf(t);
+                // If every remaining tile of a type is free, clearing a pair of them can never hurt
+                if (n >= 2 && n == remaining[t]) {
+                    int[] forced = ensureCapacity(depth, 2);
+                    forced[0] = state.freeSlotOf(t, 0);
+                    forced[1] = state.freeSlotOf(t, 1);
+                    return 1;
+                }
+                needed += n * (n - 1);
+            }
+
+            int[] out = ensureCapacity(depth, needed);
+            int count = 0;
+            for (int t = 0; t < BoardState.TYPE_COUNT; t++) {
+                int n = state.freeCountOf(t);
+                for (int i = 0; i < n; i++) {
+                    for (int j = i + 1; j < n; j++) {
+                        // Inside-out shuffle: every restart walks the moves in a fresh random order.
+                        // This beat "free the most tiles first" orderings on all five layouts.
+                        int k = rnd.nextInt(count + 1);
+                        out[2 * count] = out[2 * k];
+                        out[2 * count + 1] = out[2 * k + 1];
+                        out[2 * k] = state.freeSlotOf(t, i);
+                        out[2 * k + 1] = state.freeSlotOf(t, j);
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        // Two tiles in one unbroken stack can never be free together, so every tile of a type needs a
+        // partner from another stack. If one stack holds more than half of what is left, it's over.
+        private boolean stackDeadlock(int type) {
+            int r = remaining[type];
+            int[] tiles = tilesOfType[type];
+            for (int a : tiles) {
+                if (!state.isOccupied(a)) continue;
+                int together = 0;
+                for (int b : tiles) {
+                    if (state.isOccupied(b) && sameStack(a, b)) together++;
+                }
+                if (together * 2 > r) return true;
+            }
+            return false;
+        }
+
+        // Once only two tiles of a type are left they must be taken together. Treat such a pair as one node
+        // and follow strict "must go first" edges: a tile goes before the tile under it, and a tile in the same
+        // row as a pair but outside its span goes before that pair. Walking back to the pair means it waits
+        // on itself. Removing tiles never adds edges, so a new cycle can only appear when a pair gets fixed.
+        private boolean pairDeadlock(int type) {
+            int start = -1;
+            for (int c : tilesOfType[type]) {
+                if (state.isOccupied(c)) { start = c; break; }
+            }
+            if (start < 0) return false;
+
+            stamp++;
+            int top = 0;
+            markNode(start);
+            walkStack[top++] = start;
+            while (top > 0) {
+                int slot = walkStack[--top];
+                int partner = fixedPartner(slot);
+                for (int k = 0; k < 2; k++) {
+                    int x = k == 0 ? slot : partner;
+                    if (x < 0) continue;
+
+                    // 1. Whatever is directly underneath has to wait for x
+                    for (int i = layout.belowStart[x]; i < layout.belowStart[x + 1]; i++) {
+                        int below = layout.below[i];
+                        if (!state.isOccupied(below)) continue;
+                        if (isSameNode(below, start)) return true;
+                        if (markNode(below)) walkStack[top++] = below;
+                    }
+
+                    // 2. A pair lying wholly to one side of x in its row can only go once x is gone.
+                    // Rows are followed only through single side neighbours; skipping an edge is always sound.
+                    for (int dir = -1; dir <= 1; dir += 2) {
+                        for (int y = step(x, dir); y >= 0 && state.isOccupied(y); y = step(y, dir)) {
+                            int p = fixedPartner(y);
+                            if (p < 0 || !inRowBetween(x, p, dir)) continue;
+                            if (isSameNode(y, start)) return true;
+                            if (markNode(y)) walkStack[top++] = y;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        // The other tile of a type that is down to its last two, or -1
+        private int fixedPartner(int slot) {
+            byte t = state.typeAt(slot);
+            if (remaining[t] != 2) return -1;
+            for (int s : tilesOfType[t]) {
+                if (s != slot && state.isOccupied(s)) return s;
+            }
+            return -1;
+        }
+
+        // The single side neighbour in direction dir, or -1
+        private int step(int slot, int dir) { return dir < 0 ? layout.leftOf(slot) : layout.rightOf(slot); }
+
+        // Does the unbroken row running from x in direction dir also reach p?
+        private boolean inRowBetween(int x, int p, int dir) {
+            for (int s = step(x, dir); s >= 0 && state.isOccupied(s); s = step(s, dir)) {
+                if (s == p) return true;
+            }
+            return false;
+        }
+
+        private boolean isSameNode(int slot, int nodeSlot) {
+            return slot == nodeSlot || fixedPartner(nodeSlot) == slot;
+        }
+
+        // Marks the node containing slot (both tiles for a fixed pair); false if already visited
+        private boolean markNode(int slot) {
+            if (visitStamp[slot] == stamp) return false;
+            visitStamp[slot] = stamp;
+            int p = fixedPartner(slot);
+            if (p >= 0) visitStamp[p] = stamp;
+            return true;
+        }
+
+        // Walks down from the upper tile through single supports; a gap or a split stack ends it
+        private boolean sameStack(int a, int b) {
+            int lo = Math.min(a, b), hi = Math.max(a, b);
+            if (lo == hi) return true;
+            for (int s = layout.belowOf(hi); s >= 0; s = layout.belowOf(s)) {
+                if (s == lo) return true;
+                if (!state.isOccupied(s)) return false;
+            }
+            return false;
+        }
+
+        private int[] ensureCapacity(int depth, int size) {
+            int[] buf = moves[depth];
+            if (buf == null || buf.length < size) {
+                buf = new int[Math.max(size, 16)];
+                moves[depth] = buf;
+            }
+            return buf;
+        }
+
+        private boolean dfs(long hash, int depth) {
+            if (state.getTileCount() == 0) return true;
+            if ((++localNodes & 1023) == 0) search.charge(1024);
+            if (search.stopped()) return false;
+            if (deadPositions.contains(hash)) return false;
+
+            int count = generateMoves(depth);
+            int[] m = moves[depth];
+            for (int i = 0; i < count; i++) {
+                int a = m[2 * i], b = m[2 * i + 1];
+                byte type = state.typeAt(a);
+
+                state.remove(a);
+                state.remove(b);
+                remaining[type] -= 2;
+                line[2 * depth] = a;
+                line[2 * depth + 1] = b;
+
+                boolean won = !stackDeadlock(type)
+                        && !(remaining[type] == 2 && pairDeadlock(type))
+                        && dfs(hash ^ key(seed, a, type) ^ key(seed, b, type), depth + 1);
+
+                state.place(a, type);
+                state.place(b, type);
+                remaining[type] += 2;
+
+                if (won) return true;
+                if (search.stopped()) return false;
+            }
+
+            deadPositions.add(hash);
+            return false;
+        }
+    }
+
+    // --- TRANSPOSITION TABLE ---
+
+    // Fixed-size, two-way set-associative table of dead-position hashes. A full bucket evicts one of
+    // its two entries (chosen by a hash bit), so memory stays bounded no matter how long we search.
+    static final class TranspositionTable {
+        private final AtomicLongArray keys;
+        private final int mask;
+
+        TranspositionTable(int bits) {
+            this.keys = new AtomicLongArray(1 << bits);
+            this.mask = (1 << bits) - 2;
+        }
+
+        boolean contains(long hash) {
+            int i = (int) (hash >>> 20) & mask;
+            return keys.getOpaque(i) == hash || keys.getOpaque(i + 1) == hash;
+        }
+
+        void add(long hash) {
+            int i = (int) (hash >>> 20) & mask;
+            if (keys.getOpaque(i) == 0 || keys.getOpaque(i) == hash) {
+                keys.setOpaque(i, hash);
+            } else if (keys.getOpaque(i + 1) == 0) {
+                keys.setOpaque(i + 1, hash);
+            } else {
+                keys.setOpaque(i + (int) (hash & 1), hash);
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < keys.length(); i++) keys.setOpaque(i, 0);
+        }
+    }
+}
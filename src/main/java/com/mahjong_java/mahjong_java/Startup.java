@@ -0,0 +1,90 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+// Launch timings, measured from JVM start: the first frame on screen (the saved board preview, or
+// the full UI when there is none) and the moment the board takes clicks. Both are taken right
+// after the pulse that lays the scene out, just before it is painted.
+//
+//   -Dmahjong.startup.report=true   print the timings as one "startup:" line
+//   -Dmahjong.startup.exit=true     quit as soon as the board is interactive (implies report)
+//
+// StartupBenchmark launches the game repeatedly with the exit flag and reads those lines.
+//
+// Desktop launches only: there is exactly one per JVM, which is why the state below can be static.
+// A JPro session opens long after the server started, so "since JVM start" would mean nothing for
+// it, and sessions would overwrite each other's fields; HelloApplication doesn't call this for them.
+public final class Startup {
+    public static final String REPORT_PREFIX = "startup:";
+
+    private static final Metrics.Timer FIRST_FRAME = Metrics.timer("startup.first.frame");
+    private static final Metrics.Timer INTERACTIVE = Metrics.timer("startup.interactive");
+
+    // Fallback if the OS won't tell us when the process started
+    private static final Instant CLASS_INIT = Instant.now();
+
+    private static long firstFrameNanos = -1;
+    private static boolean fromPreview;
+
+    private Startup() {}
+
+    // Records the first frame of this scene; preview says whether it shows the saved picture
+    public static void firstFrame(Scene scene, boolean preview) {
+        fromPreview = preview;
+        afterPulse(scene, () -> true, () -> {
+            firstFrameNanos = sinceJvmStart();
+            FIRST_FRAME.record(firstFrameNanos);
+        });
+    }
+
+    // Records the first pulse after which ready says the board can be played
+    public static void interactive(Scene scene, BooleanSupplier ready) {
+        afterPulse(scene, ready, () -> {
+            long nanos = sinceJvmStart();
+            INTERACTIVE.record(nanos);
+
+            GameEvents.Startup event = new GameEvents.Startup();
+            if (event.isEnabled()) {
+                event.firstFrame = firstFrameNanos;
+                event.interactive = nanos;
+                event.preview = fromPreview;
+                event.commit();
+            }
+
+            boolean exit = Boolean.getBoolean("mahjong.startup.exit");
+            if (exit || Boolean.getBoolean("mahjong.startup.report")) {
+                System.out.printf(Locale.ROOT, "%s preview=%b firstFrame=%.1f interactive=%.1f%n",
+                        REPORT_PREFIX, fromPreview, firstFrameNanos / 1e6, nanos / 1e6);
+            }
+            if (exit) Platform.exit();
+        });
+    }
+
+    private static long sinceJvmStart() {
+        Instant start = ProcessHandle.current().info().startInstant().orElse(CLASS_INIT);
+        return Duration.between(start, Instant.now()).toNanos();
+    }
+
+    // Runs action once, after the first layout pulse at which condition holds. The listener removes
+    // itself on a later turn of the FX thread, never while the scene is walking its listeners.
+    private static void afterPulse(Scene scene, BooleanSupplier condition, Runnable action) {
+        Runnable listener = new Runnable() {
+            private boolean done;
+
+            @Override
+            public void run() {
+                if (done || !condition.getAsBoolean()) return;
+                done = true;
+                action.run();
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+            }
+        };
+        scene.addPostLayoutPulseListener(listener);
+    }
+}
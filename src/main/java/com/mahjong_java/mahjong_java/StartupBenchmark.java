@@ -0,0 +1,158 @@
+package com.mahjong_java.mahjong_java;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// Cold-start benchmark: launches the game in a fresh JVM again and again, each quitting as soon as
+// its board is interactive (-Dmahjong.startup.exit, see Startup), and reports time to first frame
+// and time to interactive. Every launch uses a scratch home directory. The first, untimed launch
+// deals a game and leaves the save and board preview behind, so the timed launches measure a resume
+// the way a player sees it; --fresh deletes them before each launch to measure a first start.
+//
+// --archive compares against the same launches with an AppCDS archive. The archive is recorded
+// from a resume launch by --create-archive; CDS only maps classes from jars, so both need the
+// packaged game (--jar) rather than the class directories. The Maven profiles pass it:
+//
+//   mvn -Pappcds package exec:exec
+//   mvn -Pstartup package exec:exec -Dstartup.args="--runs 10 --archive target/mahjong.jsa"
+//
+// JavaFX needs a display; on a headless machine run it under xvfb-run.
+public class StartupBenchmark {
+    private StartupBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        int runs = 10;
+        boolean fresh = false;
+        Path archive = null;
+        Path createArchive = null;
+        String classPath = System.getProperty("java.class.path");
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--runs" -> runs = Integer.parseInt(value(args, ++i, arg));
+                case "--fresh" -> fresh = true;
+                case "--archive" -> archive = Path.of(value(args, ++i, arg));
+                case "--create-archive" -> createArchive = Path.of(value(args, ++i, arg));
+                case "--jar" -> classPath = value(args, ++i, arg);
+                case "--help" -> {
+                    usage();
+                    return;
+                }
+                default -> {
+                    System.err.println("Unknown option: " + arg);
+                    usage();
+                    System.exit(2);
+                }
+            }
+        }
+        if (archive != null && !Files.exists(archive)) {
+            throw new IllegalArgumentException("No archive at " + archive + "; create it with mvn -Pappcds package exec:exec");
+        }
+
+        Path home = Files.createTempDirectory("mahjong-startup");
+        try {
+            launch(home, classPath, List.of()); // untimed: warms the OS file cache and writes the save and preview
+            if (createArchive != null) {
+                // Recorded from a resume, the path the archive is meant to speed up
+                Files.deleteIfExists(createArchive);
+                launch(home, classPath, List.of("-XX:ArchiveClassesAtExit=" + createArchive));
+                if (!Files.exists(createArchive)) throw new IllegalStateException("The JVM wrote no archive (is --jar a jar?)");
+                System.out.printf(Locale.ROOT, "AppCDS archive written to %s (%.1f MB)%n", createArchive, Files.size(createArchive) / 1048576.0);
+                return;
+            }
+            measure("default", home, classPath, runs, fresh, List.of());
+            if (archive != null) measure("appcds", home, classPath, runs, fresh, List.of("-XX:SharedArchiveFile=" + archive));
+        } finally {
+            deleteTree(home);
+        }
+    }
+
+    private static void measure(String name, Path home, String classPath, int runs, boolean fresh, List<String> jvmArgs) throws Exception {
+        double[] firstFrame = new double[runs];
+        double[] interactive = new double[runs];
+        int fromPreview = 0;
+        for (int r = 0; r < runs; r++) {
+            if (fresh) clearSaves(home);
+            String[] report = launch(home, classPath, jvmArgs);
+            if (Boolean.parseBoolean(field(report, "preview"))) fromPreview++;
+            firstFrame[r] = Double.parseDouble(field(report, "firstFrame"));
+            interactive[r] = Double.parseDouble(field(report, "interactive"));
+        }
+        Arrays.sort(firstFrame);
+        Arrays.sort(interactive);
+        System.out.printf(Locale.ROOT, "%-8s first frame  p50 %7.1f ms  min %7.1f ms  max %7.1f ms   (%d of %d from the preview)%n",
+                name, firstFrame[runs / 2], firstFrame[0], firstFrame[runs - 1], fromPreview, runs);
+        System.out.printf(Locale.ROOT, "%-8s interactive  p50 %7.1f ms  min %7.1f ms  max %7.1f ms%n",
+                name, interactive[runs / 2], interactive[0], interactive[runs - 1]);
+    }
+
+    // Starts the game and returns the fields of its "startup:" line
+    private static String[] launch(Path home, String classPath, List<String> jvmArgs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("--enable-preview");
+        command.addAll(jvmArgs);
+        command.add("-Duser.home=" + home);
+        command.add("-Dmahjong.startup.exit=true");
+        command.add("-classpath");
+        command.add(classPath);
+        command.add(Launcher.class.getName());
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String[] report = null;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line; (line = out.readLine()) != null; ) {
+                if (line.startsWith(Startup.REPORT_PREFIX)) report = line.substring(Startup.REPORT_PREFIX.length()).trim().split(" ");
+            }
+        }
+        int status = process.waitFor();
+        if (report == null) throw new IllegalStateException("Launch exited with " + status + " without a startup report");
+        return report;
+    }
+
+    private static String field(String[] report, String name) {
+        for (String part : report) {
+            if (part.startsWith(name + "=")) return part.substring(name.length() + 1);
+        }
+        throw new IllegalStateException("Startup report has no " + name);
+    }
+
+    private static void clearSaves(Path home) throws IOException {
+        try (Stream<Path> files = Files.list(home)) {
+            for (Path p : files.filter(p -> p.getFileName().toString().startsWith("mahjong_zen_")).toList()) Files.delete(p);
+        }
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path p : paths.sorted(Comparator.reverseOrder()).toList()) Files.deleteIfExists(p);
+        }
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) throw new IllegalArgumentException(option + " needs a value");
+        return args[i];
+    }
+
+    private static void usage() {
+        System.out.println("""
+                Usage: StartupBenchmark [options]
+                  --runs N         timed launches per configuration (default: 10)
+                  --fresh          delete the save and preview before each launch (first start instead of resume)
+                  --archive FILE   also time launches with this AppCDS archive
+                  --create-archive FILE
+                                   record an AppCDS archive from one resume launch instead of timing
+                  --jar FILE       launch the game from this jar (default: this JVM's class path)""");
+    }
+}
@@ -0,0 +1,75 @@
+package com.mahjong_java.mahjong_java;
+
+import javafx.scene.image.Image;
+import javafx.scene.text.Font;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Application-wide cache of decoded tile faces, indexed by tile type. There are only
+// TYPE_COUNT distinct faces, so every MahjongTile shares one Image per face instead of
+// decoding its own PNG. preload() decodes them all in parallel off the FX thread.
+// Images and fonts are immutable, so under JPro every session shares these same instances.
+public final class TileImageCache {
+    private static final String IMAGE_DIR = "/com/mahjong_java/mahjong_java/Images/Black_PNG/";
+    private static final String FALLBACK_FONT = "/com/mahjong_java/mahjong_java/Fonts/FreeSerif.otf";
+    private static final double FALLBACK_FONT_SIZE = 30;
+
+    @SuppressWarnings("unchecked")
+    private static final CompletableFuture<Image>[] FACES = new CompletableFuture[BoardState.TYPE_COUNT];
+
+    private TileImageCache() {}
+
+    // Starts decoding every face on a short-lived pool; safe to call more than once
+    public static synchronized void preload() {
+        if (FACES[0] != null) return;
+
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 4));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tile-image-preload");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int type = 0; type < FACES.length; type++) {
+            final int t = type;
+            FACES[type] = CompletableFuture.supplyAsync(() -> decode(t), pool);
+        }
+        pool.shutdown();
+    }
+
+    // Shared image for the type, or null if its PNG is missing (the tile then falls back to text).
+    // Blocks only if the face is still being decoded.
+    public static Image get(byte type) {
+        if (FACES[type] == null) preload();
+        return FACES[type].join();
+    }
+
+    // Font for the text shown in place of a missing face; FreeSerif has the Mahjong Tiles block.
+    // Loaded on first use (the 2 MB file is parsed once per JVM, not once per tile or session).
+    public static Font fallbackFont() {
+        return FontHolder.FONT;
+    }
+
+    private static final class FontHolder {
+        static final Font FONT = loadFallbackFont();
+    }
+
+    private static Font loadFallbackFont() {
+        try (InputStream is = TileImageCache.class.getResourceAsStream(FALLBACK_FONT)) {
+            Font font = is == null ? null : Font.loadFont(is, FALLBACK_FONT_SIZE);
+            return font != null ? font : Font.font(FALLBACK_FONT_SIZE);
+        } catch (Exception e) {
+            return Font.font(FALLBACK_FONT_SIZE);
+        }
+    }
+
+    private static Image decode(int type) {
+        try (InputStream is = TileImageCache.class.getResourceAsStream(IMAGE_DIR + TileType.of((byte) type).getImageFile())) {
+            return is == null ? null : new Image(is);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mahjong_java.mahjong_java;
+
+import java.util.ArrayDeque;
+
+// Free list of tile nodes. New boards, restarts and layout switches hand their old nodes
+// back here and re-skin them instead of building fresh StackPanes, Rectangles and ImageViews.
+public class TilePool {
+    private final ArrayDeque<MahjongTile> free = new ArrayDeque<>();
+    private final HelloController controller;
+    private int created;
+
+    private static final Metrics.Timer CREATE_TIMER = Metrics.timer("tile.create");
+    private static final Metrics.Counter REUSED = Metrics.counter("tile.reused");
+
+    public TilePool(HelloController controller) {
+        this.controller = controller;
+    }
+
+    public MahjongTile acquire(byte type) {
+        MahjongTile tile = free.pollLast();
+        if (tile == null) {
+            created++;
+            long start = System.nanoTime();
+            tile = new MahjongTile(type, controller);
+            CREATE_TIMER.stop(start);
+            return tile;
+        }
+        tile.reskin(type);
+        REUSED.increment();
+        return tile;
+    }
+
+    // The node must already be detached from the scene graph
+    public void release(MahjongTile tile) {
+        tile.reset();
+        free.addLast(tile);
+    }
+
+    public int getIdleCount() { return free.size(); }
+    public int getCreatedCount() { return created; }
+}
@@ -0,0 +1,79 @@
+package com.mahjong_java.mahjong_java;
+
+// Every tile face the game deals. A face is stored everywhere as its ordinal in one byte: the board,
+// the free-tile index, hints, the solver, saves and the journal. This table is the only place that
+// knows what a byte means, so the order is part of the save format: append, never reorder.
+//
+// The glyph is what a tile shows when its PNG is missing, and the key old JSON saves stored per tile.
+// Two glyphs don't match their pictures: CHUN has a flower and MAN_5_DORA the white dragon. They
+// stay as they are so those saves still import.
+public enum TileType {
+    PIN_1(Suit.DOTS, 1, "Pin1.png", "🀙"),
+    PIN_2(Suit.DOTS, 2, "Pin2.png", "🀚"),
+    PIN_3(Suit.DOTS, 3, "Pin3.png", "🀛"),
+    PIN_4(Suit.DOTS, 4, "Pin4.png", "🀜"),
+    PIN_5(Suit.DOTS, 5, "Pin5.png", "🀝"),
+    PIN_6(Suit.DOTS, 6, "Pin6.png", "🀞"),
+    PIN_7(Suit.DOTS, 7, "Pin7.png", "🀟"),
+    PIN_8(Suit.DOTS, 8, "Pin8.png", "🀠"),
+    PIN_9(Suit.DOTS, 9, "Pin9.png", "🀡"),
+    SOU_1(Suit.BAMBOO, 1, "Sou1.png", "🀐"),
+    SOU_2(Suit.BAMBOO, 2, "Sou2.png", "🀑"),
+    SOU_3(Suit.BAMBOO, 3, "Sou3.png", "🀒"),
+    SOU_4(Suit.BAMBOO, 4, "Sou4.png", "🀓"),
+    SOU_5(Suit.BAMBOO, 5, "Sou5.png", "🀔"),
+    SOU_6(Suit.BAMBOO, 6, "Sou6.png", "🀕"),
+    SOU_7(Suit.BAMBOO, 7, "Sou7.png", "🀖"),
+    SOU_8(Suit.BAMBOO, 8, "Sou8.png", "🀗"),
+    SOU_9(Suit.BAMBOO, 9, "Sou9.png", "🀘"),
+    MAN_1(Suit.CHARACTERS, 1, "Man1.png", "🀇"),
+    MAN_2(Suit.CHARACTERS, 2, "Man2.png", "🀈"),
+    MAN_3(Suit.CHARACTERS, 3, "Man3.png", "🀉"),
+    MAN_4(Suit.CHARACTERS, 4, "Man4.png", "🀊"),
+    MAN_5(Suit.CHARACTERS, 5, "Man5.png", "🀋"),
+    MAN_6(Suit.CHARACTERS, 6, "Man6.png", "🀌"),
+    MAN_7(Suit.CHARACTERS, 7, "Man7.png", "🀍"),
+    MAN_8(Suit.CHARACTERS, 8, "Man8.png", "🀎"),
+    MAN_9(Suit.CHARACTERS, 9, "Man9.png", "🀏"),
+    TON(Suit.WIND, 1, "Ton.png", "🀀"),
+    NAN(Suit.WIND, 2, "Nan.png", "🀁"),
+    SHAA(Suit.WIND, 3, "Shaa.png", "🀂"),
+    PEI(Suit.WIND, 4, "Pei.png", "🀃"),
+    CHUN(Suit.DRAGON, 1, "Chun.png", "🀢"),
+    HATSU(Suit.DRAGON, 2, "Hatsu.png", "🀅"),
+    // The red five: same suit and rank as MAN_5, but a face of its own that only matches itself
+    MAN_5_DORA(Suit.CHARACTERS, 5, "Man5-Dora.png", "🀆");
+
+    public enum Suit { DOTS, BAMBOO, CHARACTERS, WIND, DRAGON }
+
+    public static final int COUNT = values().length;
+    private static final TileType[] BY_ID = values();
+
+    private final Suit suit;
+    private final int rank;
+    private final String imageFile;
+    private final String glyph;
+
+    TileType(Suit suit, int rank, String imageFile, String glyph) {
+        this.suit = suit;
+        this.rank = rank;
+        this.imageFile = imageFile;
+        this.glyph = glyph;
+    }
+
+    public static TileType of(byte id) { return BY_ID[id]; }
+
+    // Type byte for a glyph from an old JSON save
+    public static byte idOf(String glyph) {
+        for (TileType t : BY_ID) {
+            if (t.glyph.equals(glyph)) return t.id();
+        }
+        throw new IllegalArgumentException("Unknown tile symbol: " + glyph);
+    }
+
+    public byte id() { return (byte) ordinal(); }
+    public Suit getSuit() { return suit; }
+    public int getRank() { return rank; }
+    public String getImageFile() { return imageFile; }
+    public String getGlyph() { return glyph; }
+}
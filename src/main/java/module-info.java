@@ -11,6 +11,7 @@ module com.mahjong_java.mahjong_java {
     requires org.kordamp.bootstrapfx.core;
     requires eu.hansolo.tilesfx;
     requires jpro.webapi;
+    requires jdk.jfr;
 
     opens com.mahjong_java.mahjong_java to javafx.fxml, com.google.gson,jpro.webapi;
     exports com.mahjong_java.mahjong_java;